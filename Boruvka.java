@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Boruvka's algorithm: multi-core alternative to Krushkal.kruskalMST.
+ * Every round finds the cheapest connection leaving each component in parallel,
+ * then contracts along those connections with DisjSets. There are O(log V) rounds
+ * and no global sort.
+ *
+ * Ties are broken by edge index, the same order kruskalMST's stable sort uses,
+ * so both return the same set of connections (in a different order).
+ *
+ * @author Safal Tyagi
+ */
+class Boruvka {
+
+    static final int BLOCK = 1 << 13;  // edges per fork-join leaf
+    private static final long NONE = Long.MAX_VALUE;
+
+    public static ArrayList<Connection> boruvkaMST(CityGraph cityGraph) {
+        return boruvkaMST(cityGraph, ForkJoinPool.commonPool());
+    }
+
+    public static ArrayList<Connection> boruvkaMST(CityGraph cityGraph, ForkJoinPool pool) {
+        EdgeList edges = cityGraph.connections;
+        int[] source = edges.source, destination = edges.destination, distance = edges.distance;
+        int nCities = cityGraph.cities.size();
+        int m = edges.size();
+        DisjSets ds = new DisjSets(nCities);
+        ArrayList<Connection> cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+
+        int[] component = new int[nCities];  // root of every city, refreshed each round
+        for (int v = 0; v < nCities; v++)
+            component[v] = v;
+        int[] roots = component.clone();     // current components
+        int nRoots = nCities;
+        AtomicLongArray cheapest = new AtomicLongArray(nCities);  // (distance << 32 | edge) per root
+        for (int v = 0; v < nCities; v++)
+            cheapest.set(v, NONE);
+
+        // live edges, compacted inside each block as they become internal
+        int nBlocks = (m + BLOCK - 1) / BLOCK;
+        int[] live = new int[m];
+        int[] blockSize = new int[nBlocks];
+        for (int e = 0; e < m; e++)
+            live[e] = e;
+        for (int b = 0; b < nBlocks; b++)
+            blockSize[b] = Math.min(BLOCK, m - b * BLOCK);
+
+        while (nRoots > 1) {
+            // cheapest outgoing connection of every component
+            pool.invoke(new ForBlocks(0, nBlocks, b -> {
+                int at = b * BLOCK, kept = at;
+                for (int i = at, end = at + blockSize[b]; i < end; i++) {
+                    int e = live[i];
+                    int cu = component[source[e]], cv = component[destination[e]];
+                    if (cu == cv)
+                        continue;  // internal now, drop it
+                    live[kept++] = e;
+                    long key = (long) distance[e] << 32 | e;
+                    lower(cheapest, cu, key);
+                    lower(cheapest, cv, key);
+                }
+                blockSize[b] = kept - at;
+            }));
+
+            // contract
+            boolean merged = false;
+            for (int i = 0; i < nRoots; i++) {
+                int c = roots[i];
+                long key = cheapest.get(c);
+                if (key == NONE)
+                    continue;
+                cheapest.set(c, NONE);
+                int e = (int) key;
+                int rootA = ds.find(source[e]);
+                int rootB = ds.find(destination[e]);
+                if (rootA != rootB) {  // both ends may pick the same edge
+                    cityMST.add(cityGraph.connection(e));
+                    ds.union(rootA, rootB);
+                    merged = true;
+                }
+            }
+            if (!merged)
+                break;  // what is left is a spanning forest
+
+            // relabel cities with their new roots, read-only finds in parallel
+            int[] s = ds.s;
+            pool.invoke(new ForBlocks(0, (nCities + BLOCK - 1) / BLOCK, b -> {
+                for (int v = b * BLOCK, end = Math.min(v + BLOCK, nCities); v < end; v++) {
+                    int x = component[v];
+                    while (s[x] >= 0)
+                        x = s[x];
+                    component[v] = x;
+                }
+            }));
+            int n = 0;
+            for (int i = 0; i < nRoots; i++)
+                if (s[roots[i]] < 0)
+                    roots[n++] = roots[i];
+            nRoots = n;
+        }
+        return cityMST;
+    }
+
+    // cheapest[i] = min(cheapest[i], key)
+    private static void lower(AtomicLongArray cheapest, int i, long key) {
+        long current = cheapest.get(i);
+        while (key < current && !cheapest.compareAndSet(i, current, key))
+            current = cheapest.get(i);
+    }
+}
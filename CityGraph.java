@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * City graph class.
+ *
+ * @author Safal Tyagi
+ */
+class CityGraph {
+
+    // Initialize graph: known size
+    CityGraph() {
+        this.cities = new ArrayList<>();
+        this.cityIds = new HashMap<>();
+        this.connections = new EdgeList();
+        this.connectionKeys = new ConnectionSet();
+    }
+
+    /**
+     * Intern a city name. Ids are dense, in order of first appearance,
+     * and index into cities; adding a known city returns its existing id.
+     */
+    public int addCity(String cityName) {
+        Integer id = cityIds.get(cityName);
+        if (id == null) {
+            id = cities.size();
+            cityIds.put(cityName, id);
+            cities.add(cityName);
+            fingerprint += mix(nameHash(cityName) + id * 0x9E3779B97F4A7C15L);
+        }
+        return id;
+    }
+
+    // Id of a city, or -1 if it was never added
+    public int cityId(String cityName) {
+        Integer id = cityIds.get(cityName);
+        return id == null ? -1 : id;
+    }
+
+    // Cities not added yet (e.g. a destination before its own csv line) are interned here
+    public void addConnection(String source, String destination, int distance) {
+        addConnection(addCity(source), addCity(destination), distance);
+    }
+
+    public void addConnection(int source, int destination, int distance) {
+        connections.add(source, destination, distance);
+        connectionKeys.add(source, destination, distance);
+        long low = Math.min(source, destination), high = Math.max(source, destination);
+        fingerprint += mix(mix(low << 32 | high) ^ distance);
+    }
+
+    /**
+     * Content hash of the cities and connections, kept up to date by addCity and
+     * addConnection. A sum of per-item hashes, so it does not depend on
+     * the order connections were added in or on sorting.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    // FNV-1a over every char, 64 bits wide; String.hashCode is too narrow to fingerprint names
+    private static long nameHash(String name) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < name.length(); i++)
+            h = (h ^ name.charAt(i)) * 0x100000001B3L;
+        return h;
+    }
+
+    // 64-bit finalizer from SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Undirected: (a, b, d) and (b, a, d) are the same connection
+    public boolean containsConnection(String source, String destination, int distance) {
+        int sourceId = cityId(source);
+        int destinationId = cityId(destination);
+        if (sourceId < 0 || destinationId < 0)
+            return false;
+        return containsConnection(sourceId, destinationId, distance);
+    }
+
+    public boolean containsConnection(int source, int destination, int distance) {
+        return connectionKeys.contains(source, destination, distance);
+    }
+
+    /**
+     * Load a csv file (city,neighbour,distance,... per line) into a new graph.
+     * The file is memory-mapped and parsed in parallel, see CityGraphLoader.
+     */
+    public static CityGraph load(Path csvFile) throws IOException {
+        CityGraph cityGraph = new CityGraph();
+        CityGraphLoader.load(cityGraph, csvFile, Runtime.getRuntime().availableProcessors());
+        return cityGraph;
+    }
+
+    static final String SNAPSHOT_SUFFIX = ".cgraph";
+
+    // Write a versioned binary snapshot, see GraphSnapshot for the layout.
+    // Sorts this graph's connections by distance in place, as kruskalMST does.
+    public void save(Path snapshotFile) throws IOException {
+        GraphSnapshot.write(this, snapshotFile);
+    }
+
+    // Map a snapshot written by save; edges are served from the mapped file
+    public static GraphSnapshot loadSnapshot(Path snapshotFile) throws IOException {
+        return GraphSnapshot.open(snapshotFile);
+    }
+
+    // Connection object for the i-th edge of connections
+    public Connection connection(int i) {
+        int source = connections.source[i];
+        int destination = connections.destination[i];
+        return new Connection(cities.get(source), cities.get(destination),
+                source, destination, connections.distance[i]);
+    }
+
+    public void printCityGraph() {
+        for (int i = 0; i < connections.size(); i++)
+            System.out.println("From " + cities.get(connections.source[i]) +
+                    " to " + cities.get(connections.destination[i]) +
+                    " " + connections.distance[i]);
+    }
+
+    public ArrayList<String> cities;  // id -> name
+    public EdgeList connections;
+    private HashMap<String, Integer> cityIds;  // name -> id
+    private ConnectionSet connectionKeys;  // index over connections for duplicate checks
+    private long fingerprint;
+}
@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Memory-mapped, parallel csv loader for CityGraph.
+ * The file is cut into line-aligned chunks, every chunk is mapped and parsed
+ * straight from bytes on a worker thread, and the chunks are merged into the
+ * graph in file order, so city ids come out the same as a sequential read.
+ * At most two chunks per thread are in flight, and a chunk is dropped as soon
+ * as it is merged, so parsed chunks never pile up next to the growing graph.
+ *
+ * Line format: city,neighbour,distance[,neighbour,distance]...
+ *
+ * @author Safal Tyagi
+ */
+class CityGraphLoader {
+
+    static final int CHUNK_BYTES = 64 << 20;
+
+    public static void load(CityGraph cityGraph, Path csvFile, int nThreads) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            ArrayList<long[]> bounds = split(channel, CHUNK_BYTES);
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, nThreads));
+            try {
+                int window = 2 * Math.max(1, nThreads);
+                ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>(window);
+                // merge in file order while the next few chunks are being parsed
+                for (int next = 0; next < bounds.size() || !pending.isEmpty(); ) {
+                    while (next < bounds.size() && pending.size() < window) {
+                        long[] bound = bounds.get(next++);
+                        pending.add(workers.submit(() -> parse(map(channel, bound))));
+                    }
+                    merge(cityGraph, await(pending.poll()));
+                }
+            } finally {
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    // Add a parsed chunk to the graph, skipping connections already present
+    public static void merge(CityGraph cityGraph, Chunk chunk) {
+        int[] ids = new int[chunk.names.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = cityGraph.addCity(chunk.names.get(i));
+        for (int i = 0; i < chunk.nConnections; i++) {
+            int source = ids[chunk.source[i]];
+            int destination = ids[chunk.destination[i]];
+            // note: containsConnection check to be removed for DAG
+            if (!cityGraph.containsConnection(destination, source, chunk.distance[i]))
+                cityGraph.addConnection(source, destination, chunk.distance[i]);
+        }
+    }
+
+    /**
+     * Cut the file into [start, end) byte ranges of about chunkBytes,
+     * each ending just after a newline (or at end of file).
+     */
+    public static ArrayList<long[]> split(FileChannel channel, int chunkBytes) throws IOException {
+        ArrayList<long[]> bounds = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(start + chunkBytes, size);
+            // move end past the next newline
+            while (end < size) {
+                probe.clear();
+                int n = channel.read(probe, end);
+                int i = 0;
+                while (i < n && probe.get(i) != '\n')
+                    i++;
+                end += i;
+                if (i < n) {
+                    end++;
+                    break;
+                }
+            }
+            bounds.add(new long[]{start, end});
+            start = end;
+        }
+        return bounds;
+    }
+
+    public static ByteBuffer map(FileChannel channel, long[] bound) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, bound[0], bound[1] - bound[0]);
+    }
+
+    // Parse whole lines from bytes; names get chunk-local ids in order of first appearance
+    public static Chunk parse(ByteBuffer bytes) {
+        Chunk chunk = new Chunk();
+        int limit = bytes.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int eol = pos;
+            while (eol < limit && bytes.get(eol) != '\n')
+                eol++;
+            int end = eol;
+            if (end > pos && bytes.get(end - 1) == '\r')
+                end--;
+            if (end > pos)
+                chunk.parseLine(bytes, pos, end);
+            pos = eol + 1;
+        }
+        return chunk;
+    }
+
+    private static Chunk await(Future<Chunk> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("csv load interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Connections of one chunk over chunk-local city ids.
+     * City names are hashed straight from the mapped bytes; a String is
+     * only built the first time a name is seen in the chunk.
+     */
+    static class Chunk {
+        ArrayList<String> names = new ArrayList<>();  // local id -> name
+        int[] source = new int[1024];
+        int[] destination = new int[1024];
+        int[] distance = new int[1024];
+        int nConnections;
+
+        // open addressing table of local ids, keyed on the name bytes
+        private int[] table = newTable(1024);
+        private int[] hashes = new int[256];
+        private int[] nameStart = new int[257];
+        private byte[] nameBytes = new byte[4096];
+        private int nameBytesUsed;
+
+        void parseLine(ByteBuffer bytes, int pos, int end) {
+            int comma = indexOf(bytes, pos, end);
+            int source = intern(bytes, pos, comma);
+            pos = comma + 1;
+            while (pos < end) {
+                comma = indexOf(bytes, pos, end);
+                int destination = intern(bytes, pos, comma);
+                if (comma >= end)
+                    throw new NumberFormatException("Missing distance for " + names.get(destination));
+                pos = comma + 1;
+                comma = indexOf(bytes, pos, end);
+                add(source, destination, parseDistance(bytes, pos, comma));
+                pos = comma + 1;
+            }
+        }
+
+        private void add(int source, int destination, int distance) {
+            if (nConnections == this.source.length) {
+                int capacity = nConnections * 2;
+                this.source = Arrays.copyOf(this.source, capacity);
+                this.destination = Arrays.copyOf(this.destination, capacity);
+                this.distance = Arrays.copyOf(this.distance, capacity);
+            }
+            this.source[nConnections] = source;
+            this.destination[nConnections] = destination;
+            this.distance[nConnections] = distance;
+            nConnections++;
+        }
+
+        private int intern(ByteBuffer bytes, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++)
+                hash = 31 * hash + bytes.get(i);
+            int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+            for (int id = table[slot]; id >= 0; id = table[slot]) {
+                if (hashes[id] == hash && sameName(id, bytes, from, to))
+                    return id;
+                slot = (slot + 1) & mask;
+            }
+            int id = names.size();
+            int length = to - from;
+            if (id == hashes.length) {
+                hashes = Arrays.copyOf(hashes, id * 2);
+                nameStart = Arrays.copyOf(nameStart, id * 2 + 1);
+            }
+            if (nameBytesUsed + length > nameBytes.length)
+                nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, nameBytesUsed + length));
+            bytes.get(from, nameBytes, nameBytesUsed, length);
+            names.add(new String(nameBytes, nameBytesUsed, length, StandardCharsets.UTF_8));
+            hashes[id] = hash;
+            nameStart[id] = nameBytesUsed;
+            nameBytesUsed += length;
+            nameStart[id + 1] = nameBytesUsed;
+            table[slot] = id;
+            if (2 * names.size() > table.length)
+                rehash();
+            return id;
+        }
+
+        private boolean sameName(int id, ByteBuffer bytes, int from, int to) {
+            int start = nameStart[id];
+            if (nameStart[id + 1] - start != to - from)
+                return false;
+            for (int i = from; i < to; i++)
+                if (nameBytes[start++] != bytes.get(i))
+                    return false;
+            return true;
+        }
+
+        private void rehash() {
+            table = newTable(table.length * 2);
+            int mask = table.length - 1;
+            for (int id = 0; id < names.size(); id++) {
+                int slot = mix(hashes[id]) & mask;
+                while (table[slot] >= 0)
+                    slot = (slot + 1) & mask;
+                table[slot] = id;
+            }
+        }
+
+        private static int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, -1);
+            return table;
+        }
+
+        private static int mix(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+        private static int indexOf(ByteBuffer bytes, int from, int end) {
+            while (from < end && bytes.get(from) != ',')
+                from++;
+            return from;
+        }
+
+        private static int parseDistance(ByteBuffer bytes, int from, int to) {
+            boolean negative = from < to && bytes.get(from) == '-';
+            int i = negative ? from + 1 : from;
+            if (i == to)
+                throw new NumberFormatException("Empty distance");
+            int value = 0;
+            for (; i < to; i++) {
+                int digit = bytes.get(i) - '0';
+                if (digit < 0 || digit > 9)
+                    throw new NumberFormatException("Bad distance: "
+                            + StandardCharsets.UTF_8.decode(bytes.slice(from, to - from)));
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+// ConcurrentDisjSets class
+//
+// CONSTRUCTION: with int representing initial number of sets
+//
+// ******************PUBLIC OPERATIONS*********************
+// boolean union( x, y )      --> Merge the sets containing x and y
+// int find( x )              --> Return set containing x
+// boolean sameSet( x, y )    --> Return true if x and y are in one set
+// ******************ERRORS********************************
+// No error checking is performed
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free disjoint sets, safe for any number of threads calling
+ * find and union at once. Same layout as DisjSets: a root holds
+ * -(rank + 1), any other element holds its parent.
+ * Links are made by CAS on the root entry, lower (rank, index) under higher,
+ * so a root whose rank changed cannot be linked by a stale decision.
+ * find does path halving with CAS and never retries, so it is wait-free.
+ */
+public class ConcurrentDisjSets
+{
+    /**
+     * Construct the disjoint sets object.
+     * @param numElements the initial number of disjoint sets.
+     */
+    public ConcurrentDisjSets( int numElements )
+    {
+        s = new AtomicIntegerArray( numElements );
+        for( int i = 0; i < numElements; i++ )
+            s.set( i, -1 );
+    }
+
+    /**
+     * Union the sets containing x and y, using union by rank.
+     * x and y need not be roots.
+     * @param x an element of set 1.
+     * @param y an element of set 2.
+     * @return true if two sets were merged, false if x and y were already in one set.
+     */
+    public boolean union( int x, int y )
+    {
+        for( ; ; )
+        {
+            int root1 = find( x );
+            int root2 = find( y );
+            if( root1 == root2 )
+                return false;
+            int s1 = s.get( root1 );
+            int s2 = s.get( root2 );
+            if( s1 >= 0 || s2 >= 0 )
+                continue;                    // a root was linked meanwhile
+
+            // link the root with the lower (rank, index) under the other
+            if( s1 < s2 || ( s1 == s2 && root1 > root2 ) )
+            {
+                int t = root1; root1 = root2; root2 = t;
+                t = s1; s1 = s2; s2 = t;
+            }
+            if( s.compareAndSet( root1, s1, root2 ) )
+            {
+                if( s1 == s2 )
+                    s.compareAndSet( root2, s2, s2 - 1 );  // update rank; fine to lose
+                return true;
+            }
+            x = root1;
+            y = root2;
+        }
+    }
+
+    /**
+     * Perform a find with path halving.
+     * Compression writes are CAS and may lose a race, which only leaves a longer path.
+     * @param x the element being searched for.
+     * @return the set containing x.
+     */
+    public int find( int x )
+    {
+        for( ; ; )
+        {
+            int parent = s.get( x );
+            if( parent < 0 )
+                return x;
+            int grandparent = s.get( parent );
+            if( grandparent < 0 )
+                return parent;
+            s.compareAndSet( x, parent, grandparent );
+            x = grandparent;
+        }
+    }
+
+    /**
+     * Test whether x and y are in the same set.
+     * Retries while a root it saw is being linked.
+     * @param x the first element.
+     * @param y the second element.
+     * @return true if x and y are in one set.
+     */
+    public boolean sameSet( int x, int y )
+    {
+        for( ; ; )
+        {
+            int root1 = find( x );
+            int root2 = find( y );
+            if( root1 == root2 )
+                return true;
+            if( s.get( root1 ) < 0 )
+                return false;
+        }
+    }
+
+    public int size( )
+    {
+        return s.length( );
+    }
+
+    private final AtomicIntegerArray s;
+
+
+    // Stress test: many threads union random pairs while others find,
+    // then the partition is checked against the sequential DisjSets.
+    public static void main( String [ ] args ) throws InterruptedException
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1 << 20;
+        int nPairs = 2 * n;
+        int nThreads = Math.max( 2, Runtime.getRuntime( ).availableProcessors( ) );
+        int [ ] a = new int[ nPairs ];
+        int [ ] b = new int[ nPairs ];
+        for( int i = 0; i < nPairs; i++ )
+        {
+            a[ i ] = ThreadLocalRandom.current( ).nextInt( n );
+            b[ i ] = ThreadLocalRandom.current( ).nextInt( n );
+        }
+
+        ConcurrentDisjSets concurrent = new ConcurrentDisjSets( n );
+        AtomicLong merges = new AtomicLong( );
+        Thread [ ] threads = new Thread[ nThreads ];
+        for( int t = 0; t < nThreads; t++ )
+        {
+            int first = t;
+            threads[ t ] = new Thread( ( ) -> {
+                long merged = 0;
+                for( int i = first; i < nPairs; i += nThreads )
+                {
+                    if( concurrent.union( a[ i ], b[ i ] ) )
+                        merged++;
+                    concurrent.find( b[ ( i * 31 ) % nPairs ] );
+                }
+                merges.addAndGet( merged );
+            } );
+            threads[ t ].start( );
+        }
+        for( Thread thread : threads )
+            thread.join( );
+
+        DisjSets sequential = new DisjSets( n );
+        long expectedMerges = 0;
+        for( int i = 0; i < nPairs; i++ )
+        {
+            int root1 = sequential.find( a[ i ] );
+            int root2 = sequential.find( b[ i ] );
+            if( root1 != root2 )
+            {
+                sequential.union( root1, root2 );
+                expectedMerges++;
+            }
+        }
+
+        // roots must correspond one to one
+        int [ ] toSequential = new int[ n ];
+        int [ ] toConcurrent = new int[ n ];
+        Arrays.fill( toSequential, -1 );
+        Arrays.fill( toConcurrent, -1 );
+        for( int x = 0; x < n; x++ )
+        {
+            int c = concurrent.find( x );
+            int q = sequential.find( x );
+            if( toSequential[ c ] < 0 && toConcurrent[ q ] < 0 )
+            {
+                toSequential[ c ] = q;
+                toConcurrent[ q ] = c;
+            }
+            else if( toSequential[ c ] != q || toConcurrent[ q ] != c )
+                throw new AssertionError( "Partitions differ at element " + x );
+        }
+        if( merges.get( ) != expectedMerges )
+            throw new AssertionError( merges.get( ) + " merges reported, expected " + expectedMerges );
+        System.out.println( "OK: " + nThreads + " threads, " + n + " elements, "
+                + nPairs + " unions, " + expectedMerges + " merges" );
+    }
+}
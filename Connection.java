@@ -0,0 +1,25 @@
+/**
+ * Connection class for Graph edge.
+ *
+ * @author Safal Tyagi
+ */
+class Connection implements Comparable<Connection> {
+    public String source;
+    public String destination;
+    public int sourceId;
+    public int destinationId;
+    public int distance;
+
+    Connection(String source, String destination, int sourceId, int destinationId, int distance) {
+        this.source = source;
+        this.destination = destination;
+        this.sourceId = sourceId;
+        this.destinationId = destinationId;
+        this.distance = distance;
+    }
+
+    @Override
+    public int compareTo(Connection other) {
+        return (this.distance - other.distance);
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+/**
+ * Set of undirected connections, canonical (min id, max id, distance), with no
+ * object per connection: open addressing with linear probing over a packed
+ * (min << 32 | max) long[] and a parallel int[] of distances, at most 3/4 full.
+ *
+ * @author Safal Tyagi
+ */
+class ConnectionSet {
+    private static final long EMPTY = -1L;  // ids are non-negative, so no key packs to -1
+
+    ConnectionSet() {
+        cities = new long[16];
+        distances = new int[16];
+        Arrays.fill(cities, EMPTY);
+    }
+
+    // Add a connection; false if it was already present
+    public boolean add(int cityA, int cityB, int distance) {
+        long key = pack(cityA, cityB);
+        int slot = find(key, distance);
+        if (cities[slot] != EMPTY)
+            return false;
+        cities[slot] = key;
+        distances[slot] = distance;
+        if (++size * 4L > cities.length * 3L)
+            grow();
+        return true;
+    }
+
+    public boolean contains(int cityA, int cityB, int distance) {
+        long key = pack(cityA, cityB);
+        return cities[find(key, distance)] != EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot holding the connection, or the empty slot where it would go
+    private int find(long key, int distance) {
+        int mask = cities.length - 1;
+        int slot = hash(key, distance) & mask;
+        while (cities[slot] != EMPTY && (cities[slot] != key || distances[slot] != distance))
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldCities = cities;
+        int[] oldDistances = distances;
+        cities = new long[oldCities.length * 2];
+        distances = new int[oldCities.length * 2];
+        Arrays.fill(cities, EMPTY);
+        for (int i = 0; i < oldCities.length; i++)
+            if (oldCities[i] != EMPTY) {
+                int slot = find(oldCities[i], oldDistances[i]);
+                cities[slot] = oldCities[i];
+                distances[slot] = oldDistances[i];
+            }
+    }
+
+    private static long pack(int cityA, int cityB) {
+        return (long) Math.min(cityA, cityB) << 32 | Math.max(cityA, cityB);
+    }
+
+    // SplitMix64 finalizer, so linear probing over a power-of-two table behaves
+    private static int hash(long key, int distance) {
+        long z = key * 0x9E3779B97F4A7C15L + distance;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+
+    private long[] cities;  // slot -> min << 32 | max, EMPTY if free
+    private int[] distances;
+    private int size;
+}
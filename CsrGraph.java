@@ -0,0 +1,52 @@
+/**
+ * Compressed adjacency (CSR) view of a CityGraph.
+ * Neighbours of city v are at positions offsets[v] .. offsets[v+1]-1 of
+ * target, distance and edge; every undirected connection appears at both ends,
+ * and edge is its index in the graph's EdgeList.
+ *
+ * @author Safal Tyagi
+ */
+class CsrGraph {
+
+    public static CsrGraph of(CityGraph cityGraph) {
+        EdgeList edges = cityGraph.connections;
+        int n = cityGraph.cities.size();
+        int m = edges.size();
+        CsrGraph csr = new CsrGraph(n, 2 * m);
+        int[] offsets = csr.offsets;
+        for (int e = 0; e < m; e++) {
+            offsets[edges.source[e] + 1]++;
+            offsets[edges.destination[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++)
+            offsets[v + 1] += offsets[v];
+        int[] next = new int[n];
+        System.arraycopy(offsets, 0, next, 0, n);
+        for (int e = 0; e < m; e++) {
+            int a = edges.source[e], b = edges.destination[e], w = edges.distance[e];
+            csr.put(next[a]++, b, w, e);
+            csr.put(next[b]++, a, w, e);
+        }
+        return csr;
+    }
+
+    CsrGraph(int nCities, int nEntries) {
+        this.nCities = nCities;
+        this.offsets = new int[nCities + 1];
+        this.target = new int[nEntries];
+        this.distance = new int[nEntries];
+        this.edge = new int[nEntries];
+    }
+
+    private void put(int at, int target, int distance, int edge) {
+        this.target[at] = target;
+        this.distance[at] = distance;
+        this.edge[at] = edge;
+    }
+
+    public final int nCities;
+    public final int[] offsets;
+    public final int[] target;
+    public final int[] distance;
+    public final int[] edge;
+}
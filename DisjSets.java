@@ -1,33 +1,98 @@
 // DisjSets class
 //
-// CONSTRUCTION: with int representing initial number of sets
+// CONSTRUCTION: with int representing initial number of sets,
+//     optionally a Compression and a Linking strategy, and whether
+//     to keep member lists (needed by next and members, and by size
+//     under RANK linking)
 //
 // ******************PUBLIC OPERATIONS*********************
 // void union( root1, root2 ) --> Merge two sets
 // int find( x )              --> Return set containing x
+// int numSets( )             --> Return the number of sets
+// int size( x )              --> Return the size of the set containing x
+// int next( x )              --> Return the next member of x's set (circular)
+// int [ ] members( x )       --> Return the members of the set containing x
+// int unionAll( a, b )       --> Merge the sets of every pair a[ i ], b[ i ]
+// void findAll( xs, out )    --> out[ i ] = find( xs[ i ] ) for every i
 // ******************ERRORS********************************
-// No error checking is performed
+// No error checking is performed, except that the batch operations
+// throw IllegalArgumentException for arrays of different lengths, and
+// next, members and size throw IllegalStateException if not tracked
 
 /**
- * Disjoint set class, using union by rank and path compression.
+ * Disjoint set class, using union by rank (or size) and path compression.
+ * Also keeps the number of sets; set sizes and a circular member list per set
+ * are kept on request, as they cost 4 or 8 more bytes per element.
  * Elements in the set are numbered starting at 0.
  * @author Mark Allen Weiss
  */
 public class DisjSets
 {
+    /**
+     * How find shortens the path it walks.
+     * FULL points every element on the path at the root (two passes),
+     * HALVING points every other element at its grandparent,
+     * SPLITTING points every element at its grandparent (both one pass).
+     */
+    public enum Compression { FULL, HALVING, SPLITTING }
+
+    /**
+     * Which root becomes the parent in union.
+     * A root stores -(rank + 1) with RANK and -size with SIZE.
+     */
+    public enum Linking { RANK, SIZE }
+
     /**
      * Construct the disjoint sets object.
      * @param numElements the initial number of disjoint sets.
      */
     public DisjSets( int numElements )
+    {
+        this( numElements, Compression.FULL, Linking.RANK, false );
+    }
+
+    /**
+     * Construct the disjoint sets object with the given strategies.
+     * @param numElements the initial number of disjoint sets.
+     * @param compression the path compression done by find.
+     * @param linking the union heuristic.
+     */
+    public DisjSets( int numElements, Compression compression, Linking linking )
+    {
+        this( numElements, compression, linking, false );
+    }
+
+    /**
+     * Construct the disjoint sets object with the given strategies.
+     * @param numElements the initial number of disjoint sets.
+     * @param compression the path compression done by find.
+     * @param linking the union heuristic.
+     * @param trackMembers keep the member lists and set sizes.
+     */
+    public DisjSets( int numElements, Compression compression, Linking linking, boolean trackMembers )
     {
         s = new int [ numElements ];
         for( int i = 0; i < s.length; i++ )
             s[ i ] = -1;
+        if( trackMembers )
+        {
+            next = new int [ numElements ];
+            for( int i = 0; i < next.length; i++ )
+                next[ i ] = i;
+        }
+        if( trackMembers && linking == Linking.RANK )  // with SIZE the roots hold the sizes
+        {
+            sizes = new int [ numElements ];
+            for( int i = 0; i < sizes.length; i++ )
+                sizes[ i ] = 1;
+        }
+        numSets = numElements;
+        this.compression = compression;
+        this.linking = linking;
     }
 
     /**
-     * Union two disjoint sets using the height heuristic.
+     * Union two disjoint sets using the height (or size) heuristic.
      * For simplicity, we assume root1 and root2 are distinct
      * and represent set names.
      * @param root1 the root of set 1.
@@ -35,29 +100,242 @@ public class DisjSets
      */
     public void union( int root1, int root2 )
     {
+        numSets--;
+        if( next != null )
+        {
+            int t = next[ root1 ];     // splice the member cycles
+            next[ root1 ] = next[ root2 ];
+            next[ root2 ] = t;
+        }
+        if( linking == Linking.SIZE )
+        {
+            if( s[ root2 ] < s[ root1 ] )  // root2 is larger
+            {
+                s[ root2 ] += s[ root1 ];
+                s[ root1 ] = root2;
+            }
+            else
+            {
+                s[ root1 ] += s[ root2 ];
+                s[ root2 ] = root1;
+            }
+            return;
+        }
         if( s[ root2 ] < s[ root1 ] )  // root2 is deeper
+        {
             s[ root1 ] = root2;        // Make root2 new root
+            if( sizes != null )
+                sizes[ root2 ] += sizes[ root1 ];
+        }
         else
         {
             if( s[ root1 ] == s[ root2 ] )
                 s[ root1 ]--;          // Update height if same
             s[ root2 ] = root1;        // Make root1 new root
+            if( sizes != null )
+                sizes[ root1 ] += sizes[ root2 ];
         }
     }
 
+    /**
+     * Return the number of disjoint sets, in O(1).
+     * @return the number of sets.
+     */
+    public int numSets( )
+    {
+        return numSets;
+    }
+
+    /**
+     * Return the size of the set containing x.
+     * @param x an element of the set.
+     * @return the number of elements in the set.
+     */
+    public int size( int x )
+    {
+        if( linking == Linking.RANK )
+            checkTracked( );
+        int root = find( x );
+        return linking == Linking.SIZE ? -s[ root ] : sizes[ root ];
+    }
+
+    /**
+     * Members of a set form a cycle through next; starting from x
+     * and following next until x comes back visits the whole set.
+     * @param x an element of the set.
+     * @return the next member of the set containing x.
+     */
+    public int next( int x )
+    {
+        checkTracked( );
+        return next[ x ];
+    }
+
+    /**
+     * List the set containing x in O(size of the set).
+     * @param x an element of the set.
+     * @return the members, starting with x.
+     */
+    public int [ ] members( int x )
+    {
+        checkTracked( );
+        int [ ] members = new int[ size( x ) ];
+        int y = x;
+        for( int i = 0; i < members.length; i++, y = next[ y ] )
+            members[ i ] = y;
+        return members;
+    }
+
     /**
      * Perform a find with path compression.
+     * Iterative, so long parent chains cannot overflow the stack.
      * Error checks omitted again for simplicity.
      * @param x the element being searched for.
      * @return the set containing x.
      */
     public int find( int x )
     {
-        if( s[ x ] < 0 )
+        switch( compression )
+        {
+          case HALVING:
+            while( s[ x ] >= 0 )
+            {
+                int parent = s[ x ];
+                if( s[ parent ] < 0 )
+                    return parent;
+                x = s[ x ] = s[ parent ];
+            }
             return x;
-        else
-            return s[ x ] = find( s[ x ] );
+
+          case SPLITTING:
+            while( s[ x ] >= 0 )
+            {
+                int parent = s[ x ];
+                if( s[ parent ] < 0 )
+                    return parent;
+                s[ x ] = s[ parent ];
+                x = parent;
+            }
+            return x;
+
+          default:
+            int root = x;
+            while( s[ root ] >= 0 )
+                root = s[ root ];
+            while( s[ x ] >= 0 )
+            {
+                int next = s[ x ];
+                s[ x ] = root;
+                x = next;
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Union the sets of every pair ( a[ i ], b[ i ] ), for any elements.
+     * Pairs are processed in blocks; the roots of a whole block are chased
+     * together, one level per round, so the parent loads of different pairs
+     * are independent and their cache misses overlap.
+     * Those rounds do path halving whatever the compression strategy.
+     * @param a first elements of the pairs.
+     * @param b second elements of the pairs.
+     * @return the number of merges, i.e. by how much numSets dropped.
+     */
+    public int unionAll( int [ ] a, int [ ] b )
+    {
+        if( a.length != b.length )
+            throw new IllegalArgumentException( "Pair arrays of length " + a.length + " and " + b.length );
+        int [ ] rootsA = new int[ BATCH ];
+        int [ ] rootsB = new int[ BATCH ];
+        int [ ] pending = new int[ BATCH ];
+        int [ ] cur = new int[ BATCH ];
+        int merges = 0;
+        for( int from = 0; from < a.length; from += BATCH )
+        {
+            int n = Math.min( BATCH, a.length - from );
+            chase( a, from, n, rootsA, 0, pending, cur );
+            chase( b, from, n, rootsB, 0, pending, cur );
+            for( int i = 0; i < n; i++ )
+            {
+                int root1 = rootsA[ i ];
+                int root2 = rootsB[ i ];
+                if( s[ root1 ] >= 0 )    // linked by an earlier pair of this block
+                    root1 = find( root1 );
+                if( s[ root2 ] >= 0 )
+                    root2 = find( root2 );
+                if( root1 != root2 )
+                {
+                    union( root1, root2 );
+                    merges++;
+                }
+            }
+        }
+        return merges;
+    }
+
+    /**
+     * Find the set of every element of xs, chasing a block at a time as unionAll does.
+     * @param xs the elements being searched for.
+     * @param out receives the set containing xs[ i ] at index i.
+     */
+    public void findAll( int [ ] xs, int [ ] out )
+    {
+        if( xs.length != out.length )
+            throw new IllegalArgumentException( "Arrays of length " + xs.length + " and " + out.length );
+        int [ ] pending = new int[ BATCH ];
+        int [ ] cur = new int[ BATCH ];
+        for( int from = 0; from < xs.length; from += BATCH )
+            chase( xs, from, Math.min( BATCH, xs.length - from ), out, from, pending, cur );
     }
 
+    // roots[ at + i ] = find( xs[ from + i ] ) for i < n, all n paths walked in lockstep
+    private void chase( int [ ] xs, int from, int n, int [ ] roots, int at, int [ ] pending, int [ ] cur )
+    {
+        for( int i = 0; i < n; i++ )
+        {
+            cur[ i ] = xs[ from + i ];
+            pending[ i ] = i;
+        }
+        for( int active = n; active > 0; )
+        {
+            int stillActive = 0;
+            for( int j = 0; j < active; j++ )
+            {
+                int i = pending[ j ];
+                int x = cur[ i ];
+                int parent = s[ x ];
+                if( parent < 0 )
+                {
+                    roots[ at + i ] = x;
+                    continue;
+                }
+                int grandparent = s[ parent ];
+                if( grandparent < 0 )
+                {
+                    roots[ at + i ] = parent;
+                    continue;
+                }
+                s[ x ] = grandparent;    // path halving
+                cur[ i ] = grandparent;
+                pending[ stillActive++ ] = i;
+            }
+            active = stillActive;
+        }
+    }
+
+    private void checkTracked( )
+    {
+        if( next == null )
+            throw new IllegalStateException( "Member lists not tracked; construct with trackMembers" );
+    }
+
+    private static final int BATCH = 256;
+
     public int [ ] s;
+    private int [ ] next;   // circular list of every set's members, if tracked
+    private int [ ] sizes;  // set size at each root, if tracked with RANK linking
+    private int numSets;
+    private final Compression compression;
+    private final Linking linking;
 }
@@ -0,0 +1,88 @@
+// Micro-benchmark of the DisjSets compression and linking strategies.
+//
+// Usage: java -Xmx2g DisjSetsBenchmark [ numElements ]   (default 100,000,000)
+//
+// Workloads, each on a fresh DisjSets:
+//   random  --> numElements unions of random pairs, then numElements random finds
+//   chain   --> a single parent chain 0 -> 1 -> ... -> numElements - 1, written
+//               straight into s (union would only ever build a star), then
+//               finds of every element starting from the deep end; the case
+//               that overflowed the recursive find. Only the finds are timed.
+// Pairs come from an inline xorshift generator so no pair arrays are allocated.
+
+public class DisjSetsBenchmark
+{
+    public static void main( String [ ] args )
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 100_000_000;
+
+        // warm up on a small instance so every find variant is compiled
+        for( int round = 0; round < 3; round++ )
+            for( DisjSets.Linking linking : DisjSets.Linking.values( ) )
+                for( DisjSets.Compression compression : DisjSets.Compression.values( ) )
+                {
+                    random( new DisjSets( 1 << 16, compression, linking ), 1 << 16 );
+                    chain( new DisjSets( 1 << 16, compression, linking ), 1 << 16 );
+                }
+
+        System.out.printf( "%,d elements%n", n );
+        System.out.printf( "%-8s %-10s %12s %12s%n", "linking", "compress", "random ms", "chain ms" );
+        for( DisjSets.Linking linking : DisjSets.Linking.values( ) )
+            for( DisjSets.Compression compression : DisjSets.Compression.values( ) )
+            {
+                long randomMs = random( new DisjSets( n, compression, linking ), n );
+                long chainMs = chain( new DisjSets( n, compression, linking ), n );
+                System.out.printf( "%-8s %-10s %12d %12d%n", linking, compression, randomMs, chainMs );
+            }
+    }
+
+    private static long random( DisjSets ds, int n )
+    {
+        long start = System.nanoTime( );
+        long seed = 0x9E3779B97F4A7C15L;
+        int checksum = 0;
+        for( int i = 0; i < n; i++ )
+        {
+            seed = xorshift( seed );
+            int root1 = ds.find( index( seed, n ) );
+            seed = xorshift( seed );
+            int root2 = ds.find( index( seed, n ) );
+            if( root1 != root2 )
+                ds.union( root1, root2 );
+        }
+        for( int i = 0; i < n; i++ )
+        {
+            seed = xorshift( seed );
+            checksum += ds.find( index( seed, n ) );
+        }
+        sink += checksum;
+        return ( System.nanoTime( ) - start ) / 1_000_000;
+    }
+
+    private static long chain( DisjSets ds, int n )
+    {
+        for( int i = 0; i + 1 < n; i++ )  // the root n - 1 keeps its singleton entry
+            ds.s[ i ] = i + 1;
+        long start = System.nanoTime( );
+        int checksum = 0;
+        for( int i = 0; i < n; i++ )
+            checksum += ds.find( i );
+        sink += checksum;
+        return ( System.nanoTime( ) - start ) / 1_000_000;
+    }
+
+    private static long xorshift( long x )
+    {
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        return x;
+    }
+
+    private static int index( long random, int n )
+    {
+        return (int) ( ( ( random >>> 32 ) * n ) >>> 32 );
+    }
+
+    static int sink;  // keeps the checksums alive
+}
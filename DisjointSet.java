@@ -0,0 +1,282 @@
+// DisjointSet class
+//
+// CONSTRUCTION: with no initializer, or an expected number of elements
+//
+// ******************PUBLIC OPERATIONS*********************
+// int makeSet( x )           --> Add x as a singleton if new; return its id
+// int id( x )                --> Return the id of x, or -1 if never added
+// AnyType find( x )          --> Return the representative of x's set
+// boolean union( x, y )      --> Merge the sets of x and y, adding them if new
+// boolean connected( x, y )  --> Return true if x and y are in one set
+// int size( )                --> Return the number of elements
+// int numSets( )             --> Return the number of sets
+// int findId( id )           --> Return the root id of an id's set
+// boolean unionIds( i, j )   --> Merge the sets of two ids
+// ******************ERRORS********************************
+// Null keys throw NullPointerException
+// Ids outside [0, size( )) throw IllegalArgumentException
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Disjoint sets over arbitrary keys, using union by rank and path compression.
+ * Keys are interned to dense int ids as they arrive (dynamic makeSet) through
+ * an open-addressing table of ids, so the union-find itself works on a
+ * growable primitive parent array and never boxes an int.
+ */
+public class DisjointSet<AnyType>
+{
+    /**
+     * Construct an empty disjoint set.
+     */
+    public DisjointSet( )
+    {
+        this( 16 );
+    }
+
+    /**
+     * Construct an empty disjoint set.
+     * @param expectedElements number of keys to size the arrays for.
+     */
+    public DisjointSet( int expectedElements )
+    {
+        int capacity = Math.max( 16, expectedElements );
+        keys = new Object[ capacity ];
+        hashes = new int[ capacity ];
+        s = new int[ capacity ];
+        table = new int[ tableSize( capacity ) ];
+        Arrays.fill( table, -1 );
+    }
+
+    /**
+     * Add x as a singleton set if it is new.
+     * @param x the key.
+     * @return the id of x.
+     */
+    public int makeSet( AnyType x )
+    {
+        int hash = hash( x );
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for( int id; ( id = table[ slot ] ) >= 0; slot = ( slot + 1 ) & mask )
+            if( hashes[ id ] == hash && keys[ id ].equals( x ) )
+                return id;
+
+        int id = numElements++;
+        if( id == keys.length )
+        {
+            int capacity = id * 2;
+            keys = Arrays.copyOf( keys, capacity );
+            hashes = Arrays.copyOf( hashes, capacity );
+            s = Arrays.copyOf( s, capacity );
+        }
+        keys[ id ] = x;
+        hashes[ id ] = hash;
+        s[ id ] = -1;
+        numSets++;
+        table[ slot ] = id;
+        if( 2 * numElements > table.length )
+            rehash( );
+        return id;
+    }
+
+    /**
+     * @param x the key.
+     * @return the id of x, or -1 if it was never added.
+     */
+    public int id( AnyType x )
+    {
+        int hash = hash( x );
+        int mask = table.length - 1;
+        for( int slot = hash & mask, id; ( id = table[ slot ] ) >= 0; slot = ( slot + 1 ) & mask )
+            if( hashes[ id ] == hash && keys[ id ].equals( x ) )
+                return id;
+        return -1;
+    }
+
+    /**
+     * @param id an id returned by makeSet.
+     * @return the key with that id.
+     */
+    @SuppressWarnings( "unchecked" )
+    public AnyType key( int id )
+    {
+        return (AnyType) keys[ id ];
+    }
+
+    /**
+     * Find the representative of the set containing x.
+     * @param x the key.
+     * @return the representative key, or null if x was never added.
+     */
+    public AnyType find( AnyType x )
+    {
+        int id = id( x );
+        return id < 0 ? null : key( findId( id ) );
+    }
+
+    /**
+     * Perform a find with path compression, iteratively, on ids.
+     * Named apart from find( AnyType ) so a DisjointSet<Integer> cannot
+     * bind an int key to it.
+     * @param x the id being searched for.
+     * @return the id of the set's root.
+     */
+    public int findId( int x )
+    {
+        checkId( x );
+        int root = x;
+        while( s[ root ] >= 0 )
+            root = s[ root ];
+        while( s[ x ] >= 0 )
+        {
+            int next = s[ x ];
+            s[ x ] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**
+     * Union the sets containing x and y, adding either key if it is new.
+     * @param x a key of set 1.
+     * @param y a key of set 2.
+     * @return true if two sets were merged.
+     */
+    public boolean union( AnyType x, AnyType y )
+    {
+        return unionIds( makeSet( x ), makeSet( y ) );
+    }
+
+    /**
+     * Union the sets containing ids x and y, using the height heuristic.
+     * @param x an id of set 1.
+     * @param y an id of set 2.
+     * @return true if two sets were merged.
+     */
+    public boolean unionIds( int x, int y )
+    {
+        int root1 = findId( x );
+        int root2 = findId( y );
+        if( root1 == root2 )
+            return false;
+        if( s[ root2 ] < s[ root1 ] )  // root2 is deeper
+            s[ root1 ] = root2;        // Make root2 new root
+        else
+        {
+            if( s[ root1 ] == s[ root2 ] )
+                s[ root1 ]--;          // Update height if same
+            s[ root2 ] = root1;        // Make root1 new root
+        }
+        numSets--;
+        return true;
+    }
+
+    /**
+     * @return true if x and y are in one set; a key never added is only connected to itself.
+     */
+    public boolean connected( AnyType x, AnyType y )
+    {
+        int idX = id( x );
+        int idY = id( y );
+        if( idX < 0 || idY < 0 )
+            return x.equals( y );
+        return findId( idX ) == findId( idY );
+    }
+
+    public int size( )
+    {
+        return numElements;
+    }
+
+    public int numSets( )
+    {
+        return numSets;
+    }
+
+    private void checkId( int id )
+    {
+        if( id < 0 || id >= numElements )
+            throw new IllegalArgumentException( "id " + id + " not in [0, " + numElements + ")" );
+    }
+
+    private void rehash( )
+    {
+        table = new int[ table.length * 2 ];
+        Arrays.fill( table, -1 );
+        int mask = table.length - 1;
+        for( int id = 0; id < numElements; id++ )
+        {
+            int slot = hashes[ id ] & mask;
+            while( table[ slot ] >= 0 )
+                slot = ( slot + 1 ) & mask;
+            table[ slot ] = id;
+        }
+    }
+
+    private static int tableSize( int capacity )
+    {
+        int size = 16;
+        while( size < 2 * capacity )
+            size <<= 1;
+        return size;
+    }
+
+    // Spread the bits so linear probing over a power-of-two table behaves
+    private static int hash( Object x )
+    {
+        int h = x.hashCode( ) * 0x9E3779B9;
+        return h ^ ( h >>> 16 );
+    }
+
+    private Object [ ] keys;  // id -> key
+    private int [ ] hashes;   // id -> spread hash of the key
+    private int [ ] s;        // id -> parent, or -(rank + 1) at a root
+    private int [ ] table;    // open addressing: slot -> id, -1 if empty
+    private int numElements;
+    private int numSets;
+
+
+    // Test program: random unions over Integer keys (which must go through
+    // the key methods, not the id ones), checked against DisjSets on the same values.
+    public static void main( String [ ] args )
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 100000;
+        int offset = n;  // keys are n + i, all past the ids in use (below n)
+        Random random = new Random( 42 );
+        DisjointSet<Integer> keyed = new DisjointSet<>( );
+        DisjSets plain = new DisjSets( n );
+        for( int i = 0; i < n; i++ )
+        {
+            int x = random.nextInt( n );
+            int y = random.nextInt( n );
+            boolean merged = keyed.union( offset + x, offset + y );
+            int root1 = plain.find( x );
+            int root2 = plain.find( y );
+            if( merged != ( root1 != root2 ) )
+                throw new AssertionError( "union( " + x + ", " + y + " ) returned " + merged );
+            if( root1 != root2 )
+                plain.union( root1, root2 );
+        }
+        for( int x = 0; x < n; x++ )
+        {
+            int y = random.nextInt( n );
+            boolean expected = plain.find( x ) == plain.find( y );
+            if( keyed.id( offset + x ) >= 0 && keyed.id( offset + y ) >= 0
+                    && keyed.connected( offset + x, offset + y ) != expected )
+                throw new AssertionError( "connected( " + x + ", " + y + " ) != " + expected );
+        }
+        if( keyed.find( -1 ) != null )
+            throw new AssertionError( "find of a missing key" );
+        try
+        {
+            keyed.findId( keyed.size( ) );
+            throw new AssertionError( "findId past size( ) accepted" );
+        }
+        catch( IllegalArgumentException expected )
+        {
+        }
+        System.out.println( "OK: " + keyed.size( ) + " keys, " + keyed.numSets( ) + " sets" );
+    }
+}
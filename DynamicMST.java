@@ -0,0 +1,336 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Minimum spanning forest kept up to date as connections are added or re-priced.
+ * The forest is held in a link-cut tree where every tree connection is a node
+ * of its own, so the longest connection on the tree path between two cities
+ * is found in O(log V) amortized. A new or cheaper connection replaces that
+ * longest one when it is shorter.
+ *
+ * One distance is kept per pair of cities. Making a tree connection longer
+ * needs a search over the non-tree connections for a replacement, which is O(E log V).
+ * The CityGraph is only used as the city name table; its own connections are
+ * read once, when this is constructed.
+ *
+ * @author Safal Tyagi
+ */
+class DynamicMST {
+
+    DynamicMST(CityGraph cityGraph) {
+        this.cityGraph = cityGraph;
+        EdgeList edges = cityGraph.connections;
+        for (int i = 0; i < edges.size(); i++)
+            addConnection(edges.source[i], edges.destination[i], edges.distance[i]);
+    }
+
+    public void addConnection(String source, String destination, int distance) {
+        addConnection(cityGraph.addCity(source), cityGraph.addCity(destination), distance);
+    }
+
+    // A parallel connection only matters if it is cheaper than the known one
+    public void addConnection(int source, int destination, int distance) {
+        int e = pairs.get(pairKey(source, destination), -1);
+        if (e < 0 || distance < edgeDistance[e])
+            setDistance(source, destination, distance);
+    }
+
+    public void setDistance(String source, String destination, int distance) {
+        setDistance(cityGraph.addCity(source), cityGraph.addCity(destination), distance);
+    }
+
+    // Add the connection, or re-price it if the pair is already connected
+    public void setDistance(int source, int destination, int distance) {
+        if (distance < 0)
+            throw new IllegalArgumentException("Negative distance " + distance);
+        if (source == destination)
+            return;
+        long key = pairKey(source, destination);
+        int e = pairs.get(key, -1);
+        if (e < 0) {
+            e = newEdge(source, destination, distance);
+            pairs.put(key, e);
+        } else {
+            int old = edgeDistance[e];
+            edgeDistance[e] = distance;
+            if (inTree[e]) {
+                totalDistance += distance - old;
+                if (distance <= old) {
+                    setValue(edgeNode[e], distance);
+                    return;
+                }
+                // longer tree connection: take it out and reconnect with the cheapest option
+                cutEdge(e);
+                reconnect();
+                return;
+            }
+        }
+        insert(e);
+    }
+
+    public long totalDistance() {
+        return totalDistance;
+    }
+
+    // Current forest; O(E) scan over the known connections
+    public ArrayList<Connection> mst() {
+        ArrayList<Connection> cityMST = new ArrayList<>(nTree);
+        for (int e = 0; e < nEdges; e++)
+            if (inTree[e])
+                cityMST.add(new Connection(cityGraph.cities.get(edgeSource[e]),
+                        cityGraph.cities.get(edgeDestination[e]),
+                        edgeSource[e], edgeDestination[e], edgeDistance[e]));
+        return cityMST;
+    }
+
+    public boolean connected(int cityA, int cityB) {
+        return cityA == cityB || findRoot(cityNode(cityA)) == findRoot(cityNode(cityB));
+    }
+
+    // ******************tree edits******************
+
+    // Try a connection that is not in the tree
+    private void insert(int e) {
+        int a = cityNode(edgeSource[e]), b = cityNode(edgeDestination[e]);
+        if (findRoot(a) != findRoot(b)) {
+            linkEdge(e);
+            return;
+        }
+        makeRoot(a);
+        access(b);
+        int longest = maxNode[b];
+        if (value[longest] > edgeDistance[e]) {
+            cutEdge(edgeOf[longest]);
+            linkEdge(e);
+        }
+    }
+
+    // After a cut: link the cheapest non-tree connection joining the two parts, if any
+    private void reconnect() {
+        int best = -1;
+        for (int e = 0; e < nEdges; e++)
+            if (!inTree[e] && (best < 0 || edgeDistance[e] < edgeDistance[best])
+                    && !connected(edgeSource[e], edgeDestination[e]))
+                best = e;
+        if (best >= 0)
+            linkEdge(best);
+    }
+
+    private void linkEdge(int e) {
+        int node = edgeNode[e];
+        setValue(node, edgeDistance[e]);
+        link(cityNode(edgeSource[e]), node);
+        link(node, cityNode(edgeDestination[e]));
+        inTree[e] = true;
+        totalDistance += edgeDistance[e];
+        nTree++;
+    }
+
+    private void cutEdge(int e) {
+        int node = edgeNode[e];
+        cut(cityNode(edgeSource[e]), node);
+        cut(node, cityNode(edgeDestination[e]));
+        inTree[e] = false;
+        totalDistance -= edgeDistance[e];
+        nTree--;
+    }
+
+    private int newEdge(int source, int destination, int distance) {
+        if (nEdges == edgeSource.length) {
+            int capacity = nEdges * 2;
+            edgeSource = Arrays.copyOf(edgeSource, capacity);
+            edgeDestination = Arrays.copyOf(edgeDestination, capacity);
+            edgeDistance = Arrays.copyOf(edgeDistance, capacity);
+            edgeNode = Arrays.copyOf(edgeNode, capacity);
+            inTree = Arrays.copyOf(inTree, capacity);
+        }
+        int e = nEdges++;
+        edgeSource[e] = source;
+        edgeDestination[e] = destination;
+        edgeDistance[e] = distance;
+        edgeNode[e] = newNode(distance, e);
+        return e;
+    }
+
+    private int cityNode(int city) {
+        if (city >= cityNode.length) {
+            int old = cityNode.length;
+            cityNode = Arrays.copyOf(cityNode, Math.max(old * 2, city + 1));
+            Arrays.fill(cityNode, old, cityNode.length, -1);
+        }
+        if (cityNode[city] < 0)
+            cityNode[city] = newNode(-1, -1);  // cities never win a max query
+        return cityNode[city];
+    }
+
+    private static long pairKey(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    // ******************link-cut tree******************
+    // Splay trees over preferred paths; parent doubles as the path-parent pointer.
+
+    private int newNode(int nodeValue, int edge) {
+        if (nNodes == left.length) {
+            int capacity = nNodes * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            flip = Arrays.copyOf(flip, capacity);
+            value = Arrays.copyOf(value, capacity);
+            maxNode = Arrays.copyOf(maxNode, capacity);
+            edgeOf = Arrays.copyOf(edgeOf, capacity);
+        }
+        int x = nNodes++;
+        left[x] = right[x] = parent[x] = -1;
+        value[x] = nodeValue;
+        maxNode[x] = x;
+        edgeOf[x] = edge;
+        return x;
+    }
+
+    private void setValue(int x, int nodeValue) {
+        access(x);
+        value[x] = nodeValue;
+        update(x);
+    }
+
+    private boolean isRoot(int x) {
+        int p = parent[x];
+        return p < 0 || (left[p] != x && right[p] != x);
+    }
+
+    private void update(int x) {
+        int best = x;
+        if (left[x] >= 0 && value[maxNode[left[x]]] > value[best])
+            best = maxNode[left[x]];
+        if (right[x] >= 0 && value[maxNode[right[x]]] > value[best])
+            best = maxNode[right[x]];
+        maxNode[x] = best;
+    }
+
+    private void push(int x) {
+        if (flip[x]) {
+            int t = left[x];
+            left[x] = right[x];
+            right[x] = t;
+            if (left[x] >= 0)
+                flip[left[x]] ^= true;
+            if (right[x] >= 0)
+                flip[right[x]] ^= true;
+            flip[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int p = parent[x], g = parent[p];
+        if (!isRoot(p)) {
+            if (left[g] == p)
+                left[g] = x;
+            else
+                right[g] = x;
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] >= 0)
+                parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] >= 0)
+                parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        // push pending flips from the splay root down to x
+        int depth = 0;
+        for (int y = x; ; y = parent[y]) {
+            if (depth == stack.length)
+                stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = y;
+            if (isRoot(y))
+                break;
+        }
+        while (depth > 0)
+            push(stack[--depth]);
+        while (!isRoot(x)) {
+            int p = parent[x];
+            if (!isRoot(p)) {
+                int g = parent[p];
+                rotate((left[g] == p) == (left[p] == x) ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    // Make the path from the tree root to x preferred, with x at the top of its splay tree
+    private void access(int x) {
+        for (int last = -1, y = x; y >= 0; last = y, y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flip[x] ^= true;
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        push(x);
+        while (left[x] >= 0) {
+            x = left[x];
+            push(x);
+        }
+        splay(x);
+        return x;
+    }
+
+    private void link(int x, int y) {
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    // x and y must be adjacent in the tree
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        left[y] = -1;
+        parent[x] = -1;
+        update(y);
+    }
+
+    private final CityGraph cityGraph;
+    private final LongIntMap pairs = new LongIntMap();  // (min id, max id) -> edge
+    private long totalDistance;
+    private int nTree;
+
+    // known connections
+    private int[] edgeSource = new int[16];
+    private int[] edgeDestination = new int[16];
+    private int[] edgeDistance = new int[16];
+    private int[] edgeNode = new int[16];
+    private boolean[] inTree = new boolean[16];
+    private int nEdges;
+
+    // link-cut tree nodes, one per city and one per connection
+    private int[] cityNode = new int[0];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] parent = new int[16];
+    private boolean[] flip = new boolean[16];
+    private int[] value = new int[16];
+    private int[] maxNode = new int[16];
+    private int[] edgeOf = new int[16];
+    private int nNodes;
+    private int[] stack = new int[64];
+}
@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * Connections of a CityGraph as parallel primitive arrays:
+ * edge i is (source[i], destination[i], distance[i]) over city ids.
+ * Sorted once by distance with an LSD radix sort, so distances must be non-negative.
+ *
+ * @author Safal Tyagi
+ */
+class EdgeList {
+
+    EdgeList() {
+        this.source = new int[16];
+        this.destination = new int[16];
+        this.distance = new int[16];
+    }
+
+    public void add(int source, int destination, int distance) {
+        if (distance < 0)
+            throw new IllegalArgumentException("Negative distance " + distance);
+        if (size == this.source.length) {
+            int capacity = size * 2;
+            this.source = Arrays.copyOf(this.source, capacity);
+            this.destination = Arrays.copyOf(this.destination, capacity);
+            this.distance = Arrays.copyOf(this.distance, capacity);
+        }
+        this.source[size] = source;
+        this.destination[size] = destination;
+        this.distance[size] = distance;
+        size++;
+        sorted = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Sort by distance; stable, so equal distances keep insertion order
+    public void sortByDistance() {
+        if (!sorted)
+            radixSort(source, destination, distance, 0, size);
+        sorted = true;
+    }
+
+    /**
+     * Stable LSD radix sort of the edges in [from, to) by distance,
+     * one byte per pass, skipping bytes that are the same for every edge.
+     */
+    static void radixSort(int[] source, int[] destination, int[] distance, int from, int to) {
+        int n = to - from;
+        if (n < 64) {
+            insertionSort(source, destination, distance, from, to);
+            return;
+        }
+        int[] tmpSource = new int[n], tmpDestination = new int[n], tmpDistance = new int[n];
+        int[] count = new int[256];
+        boolean inTmp = false;  // current data lives in the tmp arrays
+        for (int shift = 0; shift < 32; shift += 8) {
+            int[] s = inTmp ? tmpSource : source, d = inTmp ? tmpDestination : destination;
+            int[] w = inTmp ? tmpDistance : distance;
+            int base = inTmp ? 0 : from;
+            int[] ts = inTmp ? source : tmpSource, td = inTmp ? destination : tmpDestination;
+            int[] tw = inTmp ? distance : tmpDistance;
+            int tbase = inTmp ? from : 0;
+
+            Arrays.fill(count, 0);
+            for (int i = base; i < base + n; i++)
+                count[(w[i] >>> shift) & 0xFF]++;
+            if (count[(w[base] >>> shift) & 0xFF] == n)
+                continue;  // every edge has the same byte here
+            for (int b = 0, sum = tbase; b < 256; b++) {
+                int c = count[b];
+                count[b] = sum;
+                sum += c;
+            }
+            for (int i = base; i < base + n; i++) {
+                int at = count[(w[i] >>> shift) & 0xFF]++;
+                ts[at] = s[i];
+                td[at] = d[i];
+                tw[at] = w[i];
+            }
+            inTmp = !inTmp;
+        }
+        if (inTmp) {
+            System.arraycopy(tmpSource, 0, source, from, n);
+            System.arraycopy(tmpDestination, 0, destination, from, n);
+            System.arraycopy(tmpDistance, 0, distance, from, n);
+        }
+    }
+
+    private static void insertionSort(int[] source, int[] destination, int[] distance, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int s = source[i], d = destination[i], w = distance[i];
+            int j = i - 1;
+            for (; j >= from && distance[j] > w; j--) {
+                source[j + 1] = source[j];
+                destination[j + 1] = destination[j];
+                distance[j + 1] = distance[j];
+            }
+            source[j + 1] = s;
+            destination[j + 1] = d;
+            distance[j + 1] = w;
+        }
+    }
+
+    public int[] source;
+    public int[] destination;
+    public int[] distance;
+    private int size;
+    private boolean sorted = true;
+}
@@ -0,0 +1,162 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Streaming maze generator (Eller's algorithm).
+ * Rows are produced one at a time and handed to a RowSink as soon as they
+ * are final, so memory is O(cols) whatever the number of rows. Only the set
+ * labels of the current row are kept; a small union-find over those labels
+ * (reset every row) tracks which cells of the row are already connected.
+ * The result is a perfect maze with the same borders as Maze: every wall
+ * up around the edge, bottom-right cell open as the exit.
+ */
+public class EllerMaze
+{
+    /**
+     * Receives finished rows. The arrays are reused for the next row.
+     */
+    public interface RowSink
+    {
+        void acceptRow(int row, boolean[] rightWall, boolean[] bottomWall);
+    }
+
+    static public void generate(int rows, int cols, RowSink sink)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] label = new int[cols];     // set label of each cell in the row, 0..cols-1
+        int[] parent = new int[cols];    // union-find over labels, reset per row
+        int[] count = new int[cols];     // cells of each set in the row not decided yet
+        boolean[] goesDown = new boolean[cols];
+        boolean[] used = new boolean[cols];
+        boolean[] right = new boolean[cols];
+        boolean[] bottom = new boolean[cols];
+        for (int j = 0; j < cols; j++)
+            label[j] = j;
+
+        for (int i = 0; i < rows; i++)
+        {
+            boolean last = i == rows-1;
+            Arrays.fill(parent, -1);
+
+            // join neighbours at random; the last row joins every distinct pair
+            for (int j = 0; j < cols-1; j++)
+            {
+                int a = find(parent, label[j]), b = find(parent, label[j+1]);
+                right[j] = true;
+                if (a != b && (last || random.nextBoolean()))
+                {
+                    union(parent, a, b);
+                    right[j] = false;
+                }
+            }
+            right[cols-1] = true;
+
+            if (last)
+            {
+                Arrays.fill(bottom, true);
+                right[cols-1] = false;       // exit
+                bottom[cols-1] = false;
+                sink.acceptRow(i, right, bottom);
+                break;
+            }
+
+            // every set goes down at least once
+            for (int j = 0; j < cols; j++)
+            {
+                int root = find(parent, label[j]);
+                count[root]++;
+                goesDown[root] = false;
+            }
+            for (int j = 0; j < cols; j++)
+            {
+                int root = find(parent, label[j]);
+                int remaining = --count[root];
+                boolean down = random.nextBoolean() || (remaining == 0 && !goesDown[root]);
+                if (down)
+                    goesDown[root] = true;
+                bottom[j] = !down;
+            }
+            sink.acceptRow(i, right, bottom);
+
+            // next row: cells below an opening keep their set, the rest get fresh labels
+            Arrays.fill(used, false);
+            for (int j = 0; j < cols; j++)
+                if (!bottom[j])
+                {
+                    label[j] = find(parent, label[j]);
+                    used[label[j]] = true;
+                }
+            for (int j = 0, fresh = 0; j < cols; j++)
+                if (bottom[j])
+                {
+                    while (used[fresh])
+                        fresh++;
+                    label[j] = fresh;
+                    used[fresh] = true;
+                }
+        }
+    }
+
+    // Sink printing rows in Maze.printMaze's format, top border first
+    static public RowSink printer(PrintStream out)
+    {
+        return (row, rightWall, bottomWall) -> {
+            int cols = rightWall.length;
+            char[] line = new char[2*cols + 1];
+            if (row == 0)
+            {
+                line[0] = ' ';
+                line[1] = ' ';
+                for (int j = 1; j < cols; j++)
+                {
+                    line[2*j] = ' ';
+                    line[2*j + 1] = '_';
+                }
+                out.println(String.valueOf(line, 0, 2*cols));
+            }
+            line[0] = row == 0 ? ' ' : '|';
+            for (int j = 0; j < cols; j++)
+            {
+                line[2*j + 1] = bottomWall[j] ? '_' : ' ';
+                line[2*j + 2] = rightWall[j] ? '|' : ' ';
+            }
+            out.println(line);
+        };
+    }
+
+    static private int find(int[] parent, int x)
+    {
+        while (parent[x] >= 0)
+        {
+            if (parent[parent[x]] >= 0)
+                parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    static private void union(int[] parent, int a, int b)
+    {
+        if (parent[b] < parent[a])
+            parent[a] = b;
+        else
+        {
+            if (parent[a] == parent[b])
+                parent[a]--;
+            parent[b] = a;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        Scanner s = new Scanner(System.in);
+        System.out.print("Enter a width(columns): ");
+        int cols = s.nextInt();
+        System.out.print("Enter a height(rows): ");
+        int rows = s.nextInt();
+
+        generate(rows, cols, printer(System.out));
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+/**
+ * Out-of-core Krushkal's for edge sets larger than the heap.
+ * The csv is read chunk by chunk; connections are collected in fixed-size runs,
+ * radix sorted and spilled to temp files as 12-byte (source, destination, distance)
+ * records. The runs are then k-way merged lazily into DisjSets, stopping as soon
+ * as n-1 connections are accepted.
+ *
+ * Only the city table, the union-find array, one run buffer and the merge
+ * buffers live on the heap. Duplicate connections are not filtered; the second
+ * copy just closes a cycle and is skipped.
+ *
+ * @author Safal Tyagi
+ */
+class ExternalKruskal {
+
+    static final int RUN_EDGES = 1 << 22;         // connections per sorted run
+    static final int MERGE_BUFFER_BYTES = 1 << 16;  // read buffer per run
+    private static final int RECORD_BYTES = 12;
+
+    public static ArrayList<Connection> kruskalMST(Path csvFile) throws IOException {
+        return kruskalMST(csvFile, Paths.get(System.getProperty("java.io.tmpdir")), RUN_EDGES);
+    }
+
+    public static ArrayList<Connection> kruskalMST(Path csvFile, Path tmpDir, int runEdges) throws IOException {
+        CityGraph cities = new CityGraph();  // city table only
+        ArrayList<Path> runs = new ArrayList<>();
+        try {
+            int[] source = new int[runEdges], destination = new int[runEdges], distance = new int[runEdges];
+            int n = 0;
+            try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+                for (long[] bound : CityGraphLoader.split(channel, CityGraphLoader.CHUNK_BYTES)) {
+                    CityGraphLoader.Chunk chunk = CityGraphLoader.parse(CityGraphLoader.map(channel, bound));
+                    int[] ids = new int[chunk.names.size()];
+                    for (int i = 0; i < ids.length; i++)
+                        ids[i] = cities.addCity(chunk.names.get(i));
+                    for (int i = 0; i < chunk.nConnections; i++) {
+                        if (chunk.distance[i] < 0)
+                            throw new IllegalArgumentException("Negative distance " + chunk.distance[i]);
+                        if (n == runEdges) {
+                            runs.add(spill(source, destination, distance, n, tmpDir));
+                            n = 0;
+                        }
+                        source[n] = ids[chunk.source[i]];
+                        destination[n] = ids[chunk.destination[i]];
+                        distance[n] = chunk.distance[i];
+                        n++;
+                    }
+                }
+            }
+            if (runs.isEmpty())
+                return inMemory(cities, source, destination, distance, n);
+            if (n > 0)
+                runs.add(spill(source, destination, distance, n, tmpDir));
+            source = destination = distance = null;  // let the run buffer go before merging
+            return merge(cities, runs);
+        } finally {
+            for (Path run : runs)
+                Files.deleteIfExists(run);
+        }
+    }
+
+    // Everything fit in one run: sort and scan, as kruskalMST does
+    private static ArrayList<Connection> inMemory(CityGraph cities, int[] source, int[] destination,
+                                                  int[] distance, int n) {
+        EdgeList.radixSort(source, destination, distance, 0, n);
+        int nCities = cities.cities.size();
+        DisjSets ds = new DisjSets(nCities);
+        ArrayList<Connection> cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+        for (int i = 0; i < n && cityMST.size() < nCities - 1; i++)
+            accept(cities, ds, cityMST, source[i], destination[i], distance[i]);
+        return cityMST;
+    }
+
+    private static ArrayList<Connection> merge(CityGraph cities, ArrayList<Path> runs) throws IOException {
+        int nCities = cities.cities.size();
+        DisjSets ds = new DisjSets(nCities);
+        ArrayList<Connection> cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+        // equal distances come out in run order, like the stable in-memory sort
+        PriorityQueue<Run> heap = new PriorityQueue<>((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance) : Integer.compare(a.index, b.index));
+        ArrayList<Run> open = new ArrayList<>(runs.size());
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                Run run = new Run(runs.get(i), i);
+                open.add(run);
+                if (run.next())
+                    heap.add(run);
+            }
+            while (!heap.isEmpty() && cityMST.size() < nCities - 1) {
+                Run run = heap.poll();
+                accept(cities, ds, cityMST, run.source, run.destination, run.distance);
+                if (run.next())
+                    heap.add(run);
+            }
+        } finally {
+            for (Run run : open)
+                run.channel.close();
+        }
+        return cityMST;
+    }
+
+    private static void accept(CityGraph cities, DisjSets ds, ArrayList<Connection> cityMST,
+                               int cityA, int cityB, int distance) {
+        int rootA = ds.find(cityA);
+        int rootB = ds.find(cityB);
+        if (rootA != rootB) {
+            cityMST.add(new Connection(cities.cities.get(cityA), cities.cities.get(cityB), cityA, cityB, distance));
+            ds.union(rootA, rootB);
+        }
+    }
+
+    // Sort the buffered connections and write them to a new temp file, deleted again if writing fails
+    private static Path spill(int[] source, int[] destination, int[] distance, int n, Path tmpDir)
+            throws IOException {
+        EdgeList.radixSort(source, destination, distance, 0, n);
+        Path run = Files.createTempFile(tmpDir, "mst-run", ".bin");
+        boolean written = false;
+        try {
+            try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(MERGE_BUFFER_BYTES / RECORD_BYTES * RECORD_BYTES)
+                        .order(ByteOrder.nativeOrder());
+                for (int i = 0; i < n; i++) {
+                    if (buffer.remaining() < RECORD_BYTES)
+                        drain(channel, buffer);
+                    buffer.putInt(source[i]).putInt(destination[i]).putInt(distance[i]);
+                }
+                drain(channel, buffer);
+            }
+            written = true;
+        } finally {
+            if (!written)
+                Files.deleteIfExists(run);
+        }
+        return run;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Cursor over one sorted run, refilling its buffer as it is consumed.
+     */
+    private static class Run {
+        final FileChannel channel;
+        final ByteBuffer buffer;
+        final int index;
+        int source, destination, distance;
+
+        Run(Path file, int index) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(MERGE_BUFFER_BYTES / RECORD_BYTES * RECORD_BYTES)
+                    .order(ByteOrder.nativeOrder());
+            this.buffer.limit(0);
+            this.index = index;
+        }
+
+        boolean next() throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                buffer.compact();
+                while (buffer.position() < RECORD_BYTES && channel.read(buffer) >= 0)
+                    ;
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES)
+                    return false;
+            }
+            source = buffer.getInt();
+            destination = buffer.getInt();
+            distance = buffer.getInt();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+
+/**
+ * Filter-Kruskal: parallel variant of Krushkal.kruskalMST.
+ * Edges are partitioned around a pivot distance, the light half is solved first,
+ * then heavy edges whose cities are already connected in DisjSets are filtered
+ * out before the heavy half is solved. Partition and filter run on a ForkJoinPool;
+ * small ranges are radix sorted and scanned like kruskalMST.
+ *
+ * Both passes are stable, so the MST is the same edge list kruskalMST returns.
+ *
+ * @author Safal Tyagi
+ */
+class FilterKruskal {
+
+    static final int SEQUENTIAL_EDGES = 1 << 14;  // ranges this small are sorted and scanned
+    static final int BLOCK = 1 << 13;             // edges per fork-join leaf
+
+    public static ArrayList<Connection> filterKruskalMST(CityGraph cityGraph) {
+        return filterKruskalMST(cityGraph, ForkJoinPool.commonPool());
+    }
+
+    public static ArrayList<Connection> filterKruskalMST(CityGraph cityGraph, ForkJoinPool pool) {
+        FilterKruskal fk = new FilterKruskal(cityGraph, pool);
+        fk.solve(0, fk.distance.length);
+        return fk.cityMST;
+    }
+
+    private FilterKruskal(CityGraph cityGraph, ForkJoinPool pool) {
+        EdgeList edges = cityGraph.connections;
+        int m = edges.size();
+        this.cityGraph = cityGraph;
+        this.pool = pool;
+        // work on copies, the graph's own edges stay as they are
+        this.source = Arrays.copyOf(edges.source, m);
+        this.destination = Arrays.copyOf(edges.destination, m);
+        this.distance = Arrays.copyOf(edges.distance, m);
+        this.tmpSource = new int[m];
+        this.tmpDestination = new int[m];
+        this.tmpDistance = new int[m];
+        this.nCities = cityGraph.cities.size();
+        this.ds = new DisjSets(nCities);
+        this.cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+    }
+
+    private void solve(int from, int to) {
+        if (done() || from >= to)
+            return;
+        if (to - from <= SEQUENTIAL_EDGES) {
+            kruskal(from, to);
+            return;
+        }
+        int pivot = pivot(from, to);
+        int mid = partition(from, to, i -> distance[i] <= pivot, true);
+        if (mid == to)  // pivot is the largest distance
+            mid = partition(from, to, i -> distance[i] < pivot, true);
+        if (mid == from) {  // every distance equals the pivot
+            kruskal(from, to);
+            return;
+        }
+        solve(from, mid);
+        if (done())
+            return;
+        // drop heavy edges that would close a cycle
+        int end = partition(mid, to, i -> root(source[i]) != root(destination[i]), false);
+        solve(mid, end);
+    }
+
+    // Sort [from, to) and scan it, as kruskalMST does
+    private void kruskal(int from, int to) {
+        EdgeList.radixSort(source, destination, distance, from, to);
+        for (int i = from; i < to && !done(); i++) {
+            int rootA = ds.find(source[i]);
+            int rootB = ds.find(destination[i]);
+            if (rootA != rootB) {
+                cityMST.add(new Connection(cityGraph.cities.get(source[i]), cityGraph.cities.get(destination[i]),
+                        source[i], destination[i], distance[i]));
+                ds.union(rootA, rootB);
+            }
+        }
+    }
+
+    private boolean done() {
+        return cityMST.size() >= nCities - 1;
+    }
+
+    // Median distance of evenly spaced samples
+    private int pivot(int from, int to) {
+        int[] sample = new int[31];
+        long step = (to - from) / sample.length;
+        for (int i = 0; i < sample.length; i++)
+            sample[i] = distance[(int) (from + i * step)];
+        Arrays.sort(sample);
+        return sample[sample.length / 2];
+    }
+
+    // Read-only find, safe to call from many threads while nobody calls union
+    private int root(int x) {
+        int[] s = ds.s;
+        while (s[x] >= 0)
+            x = s[x];
+        return x;
+    }
+
+    /**
+     * Stable parallel partition of [from, to): edges matching left move to the front.
+     * The rest follow if keepRight, otherwise they are dropped.
+     * Returns the end of the left part.
+     */
+    private int partition(int from, int to, IntPredicate left, boolean keepRight) {
+        int nBlocks = (to - from + BLOCK - 1) / BLOCK;
+        int[] nLeft = new int[nBlocks];
+        pool.invoke(new ForBlocks(0, nBlocks, b -> {
+            int count = 0;
+            for (int i = from + b * BLOCK, end = Math.min(i + BLOCK, to); i < end; i++)
+                if (left.test(i))
+                    count++;
+            nLeft[b] = count;
+        }));
+        // block b writes its left edges from leftAt[b] and the rest from rightAt[b]
+        int[] leftAt = new int[nBlocks], rightAt = new int[nBlocks];
+        int mid = from;
+        for (int b = 0; b < nBlocks; b++) {
+            leftAt[b] = mid;
+            mid += nLeft[b];
+        }
+        for (int b = 0, at = mid; b < nBlocks; b++) {
+            rightAt[b] = at;
+            at += Math.min(BLOCK, to - from - b * BLOCK) - nLeft[b];
+        }
+        int end = keepRight ? to : mid;
+        pool.invoke(new ForBlocks(0, nBlocks, b -> {
+            int l = leftAt[b], r = rightAt[b];
+            for (int i = from + b * BLOCK, stop = Math.min(i + BLOCK, to); i < stop; i++) {
+                int at;
+                if (left.test(i))
+                    at = l++;
+                else if (keepRight)
+                    at = r++;
+                else
+                    continue;
+                tmpSource[at] = source[i];
+                tmpDestination[at] = destination[i];
+                tmpDistance[at] = distance[i];
+            }
+        }));
+        pool.invoke(new ForBlocks(0, (end - from + BLOCK - 1) / BLOCK, b -> {
+            int at = from + b * BLOCK, n = Math.min(BLOCK, end - at);
+            System.arraycopy(tmpSource, at, source, at, n);
+            System.arraycopy(tmpDestination, at, destination, at, n);
+            System.arraycopy(tmpDistance, at, distance, at, n);
+        }));
+        return mid;
+    }
+
+    private final CityGraph cityGraph;
+    private final ForkJoinPool pool;
+    private final int[] source, destination, distance;
+    private final int[] tmpSource, tmpDestination, tmpDistance;
+    private final int nCities;
+    private final DisjSets ds;
+    private final ArrayList<Connection> cityMST;
+}
@@ -0,0 +1,32 @@
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Fork-join task running body for every block index in [lo, hi),
+ * splitting the index range in halves down to single blocks.
+ *
+ * @author Safal Tyagi
+ */
+class ForBlocks extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int lo, hi;
+    private final IntConsumer body;
+
+    ForBlocks(int lo, int hi, IntConsumer body) {
+        this.lo = lo;
+        this.hi = hi;
+        this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+        if (hi - lo <= 1) {
+            if (hi > lo)
+                body.accept(lo);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        invokeAll(new ForBlocks(lo, mid, body), new ForBlocks(mid, hi, body));
+    }
+}
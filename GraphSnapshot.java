@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary snapshot of a CityGraph, read through memory-mapped buffers.
+ * Opening a snapshot maps its sections and parses nothing: city names, adjacency
+ * and connections are served straight from the mapped pages.
+ *
+ * Layout (little endian, sections 8-byte aligned):
+ *   header       magic, version, nCities, nConnections, section positions
+ *   nameOffsets  long[nCities+1]  byte offset of every name in nameBytes
+ *   nameBytes    UTF-8 city names, back to back
+ *   csrOffsets   int[nCities+1]   adjacency of city v is csrEdges[csrOffsets[v] .. csrOffsets[v+1]-1]
+ *   csrEdges     int[2*nConnections] connection ids, each connection listed at both cities
+ *   source, destination, distance  int[nConnections] each, sorted by distance
+ *
+ * Every section has to stay under 2 GB, the limit of a single mapping.
+ *
+ * @author Safal Tyagi
+ */
+class GraphSnapshot {
+
+    static final int MAGIC = 0x46524743;  // "CGRF"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 72;
+
+    public static void write(CityGraph cityGraph, Path file) throws IOException {
+        EdgeList edges = cityGraph.connections;
+        int n = cityGraph.cities.size();
+        int m = edges.size();
+        byte[][] names = new byte[n][];
+        long nameBytes = 0;
+        for (int v = 0; v < n; v++) {
+            names[v] = cityGraph.cities.get(v).getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[v].length;
+        }
+        // refuse before touching the file anything open could not map back
+        checkSection("nameOffsets", 8L * (n + 1));
+        checkSection("nameBytes", nameBytes);
+        checkSection("csrOffsets", 4L * (n + 1));
+        checkSection("csrEdges", 8L * m);
+        checkSection("source/destination/distance", 4L * m);
+        edges.sortByDistance();
+
+        // csr over connection ids
+        int[] csrOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            csrOffsets[edges.source[e] + 1]++;
+            csrOffsets[edges.destination[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++)
+            csrOffsets[v + 1] += csrOffsets[v];
+        int[] csrEdges = new int[2 * m];
+        int[] next = new int[n];
+        System.arraycopy(csrOffsets, 0, next, 0, n);
+        for (int e = 0; e < m; e++) {
+            csrEdges[next[edges.source[e]]++] = e;
+            csrEdges[next[edges.destination[e]]++] = e;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer out = new Writer(channel);
+            long[] sections = new long[7];
+            out.skip(HEADER_BYTES);
+
+            sections[0] = out.position();
+            out.putLong(0);
+            long nameEnd = 0;
+            for (byte[] name : names) {
+                nameEnd += name.length;
+                out.putLong(nameEnd);
+            }
+            sections[1] = out.align();
+            for (byte[] name : names)
+                out.put(name);
+            sections[2] = out.align();
+            out.putInts(csrOffsets, n + 1);
+            sections[3] = out.align();
+            out.putInts(csrEdges, 2 * m);
+            sections[4] = out.align();
+            out.putInts(edges.source, m);
+            sections[5] = out.align();
+            out.putInts(edges.destination, m);
+            sections[6] = out.align();
+            out.putInts(edges.distance, m);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+            for (long section : sections)
+                header.putLong(section);
+            header.flip();
+            channel.write(header, 0);
+        }
+    }
+
+    public static GraphSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0)
+                ;
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+                throw new IOException(file + " is not a city graph snapshot");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported snapshot version " + version);
+            int n = header.getInt();
+            int m = header.getInt();
+            long[] sections = new long[7];
+            for (int i = 0; i < sections.length; i++)
+                sections[i] = header.getLong();
+            return new GraphSnapshot(channel, n, m, sections);
+        }
+    }
+
+    private GraphSnapshot(FileChannel channel, int n, int m, long[] sections) throws IOException {
+        this.nCities = n;
+        this.nConnections = m;
+        this.nameOffsets = map(channel, sections[0], 8L * (n + 1)).asLongBuffer();
+        long nameBytesLength = nameOffsets.get(n);
+        this.nameBytes = map(channel, sections[1], nameBytesLength);
+        this.csrOffsets = map(channel, sections[2], 4L * (n + 1)).asIntBuffer();
+        this.csrEdges = map(channel, sections[3], 8L * m).asIntBuffer();
+        this.source = map(channel, sections[4], 4L * m).asIntBuffer();
+        this.destination = map(channel, sections[5], 4L * m).asIntBuffer();
+        this.distance = map(channel, sections[6], 4L * m).asIntBuffer();
+    }
+
+    private static void checkSection(String section, long size) {
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Snapshot section " + section + " of " + size
+                    + " bytes is over the 2 GB a mapping can hold");
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Snapshot section of " + size + " bytes is too large to map");
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int cityCount() {
+        return nCities;
+    }
+
+    public int connectionCount() {
+        return nConnections;
+    }
+
+    public String cityName(int city) {
+        int start = (int) nameOffsets.get(city);
+        int end = (int) nameOffsets.get(city + 1);
+        byte[] bytes = new byte[end - start];
+        nameBytes.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Connections, in increasing distance
+    public int source(int connection) {
+        return source.get(connection);
+    }
+
+    public int destination(int connection) {
+        return destination.get(connection);
+    }
+
+    public int distance(int connection) {
+        return distance.get(connection);
+    }
+
+    public Connection connection(int connection) {
+        int a = source(connection), b = destination(connection);
+        return new Connection(cityName(a), cityName(b), a, b, distance(connection));
+    }
+
+    // Adjacency: connection ids at positions adjacencyStart(v) .. adjacencyEnd(v)-1
+    public int adjacencyStart(int city) {
+        return csrOffsets.get(city);
+    }
+
+    public int adjacencyEnd(int city) {
+        return csrOffsets.get(city + 1);
+    }
+
+    public int adjacentConnection(int position) {
+        return csrEdges.get(position);
+    }
+
+    /**
+     * Buffered sequential writer that keeps track of the file position.
+     */
+    private static class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return position;
+        }
+
+        void skip(int bytes) throws IOException {
+            flush();
+            position += bytes;
+        }
+
+        long align() throws IOException {
+            while ((position & 7) != 0)
+                put(new byte[1]);
+            return position;
+        }
+
+        void putLong(long value) throws IOException {
+            room(8);
+            buffer.putLong(value);
+            position += 8;
+        }
+
+        void putInts(int[] values, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                room(4);
+                buffer.putInt(values[i]);
+                position += 4;
+            }
+        }
+
+        void put(byte[] bytes) throws IOException {
+            for (int at = 0; at < bytes.length; ) {
+                room(1);
+                int length = Math.min(buffer.remaining(), bytes.length - at);
+                buffer.put(bytes, at, length);
+                at += length;
+                position += length;
+            }
+        }
+
+        private void room(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            long at = position - buffer.remaining();
+            while (buffer.hasRemaining())
+                at += channel.write(buffer, at);
+            buffer.clear();
+        }
+    }
+
+    private final int nCities;
+    private final int nConnections;
+    private final LongBuffer nameOffsets;
+    private final ByteBuffer nameBytes;
+    private final IntBuffer csrOffsets;
+    private final IntBuffer csrEdges;
+    private final IntBuffer source;
+    private final IntBuffer destination;
+    private final IntBuffer distance;
+}
@@ -0,0 +1,117 @@
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min heap over items 0 .. capacity-1 with long keys.
+ * pos[item] tracks where each item sits, so decreaseKey is O(log_d n)
+ * and no objects are allocated per item.
+ *
+ * @author Safal Tyagi
+ */
+class IndexedDaryHeap {
+
+    public IndexedDaryHeap(int capacity, int d) {
+        if (d < 2)
+            throw new IllegalArgumentException("Arity " + d + " < 2");
+        this.d = d;
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int item) {
+        return pos[item] >= 0;
+    }
+
+    public long key(int item) {
+        return keys[item];
+    }
+
+    public void insert(int item, long key) {
+        keys[item] = key;
+        heap[size] = item;
+        pos[item] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int item, long key) {
+        keys[item] = key;
+        siftUp(pos[item]);
+    }
+
+    // Insert, or lower the key if item is already in the heap with a larger one
+    public void insertOrDecrease(int item, long key) {
+        if (pos[item] < 0)
+            insert(item, key);
+        else if (key < keys[item])
+            decreaseKey(item, key);
+    }
+
+    public int deleteMin() {
+        int min = heap[0];
+        pos[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // Empty the heap; only the items still in it are touched
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int item = heap[i];
+        long key = keys[item];
+        while (i > 0) {
+            int parent = (i - 1) / d;
+            if (keys[heap[parent]] <= key)
+                break;
+            heap[i] = heap[parent];
+            pos[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        pos[item] = i;
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        long key = keys[item];
+        while (true) {
+            int first = d * i + 1;
+            if (first >= size)
+                break;
+            int best = first;
+            for (int c = first + 1, end = Math.min(first + d, size); c < end; c++)
+                if (keys[heap[c]] < keys[heap[best]])
+                    best = c;
+            if (keys[heap[best]] >= key)
+                break;
+            heap[i] = heap[best];
+            pos[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = item;
+        pos[item] = i;
+    }
+
+    private final int d;
+    private final int[] heap;   // heap order -> item
+    private final int[] pos;    // item -> heap index, -1 if absent
+    private final long[] keys;  // item -> key
+    private int size;
+}
@@ -1,16 +1,14 @@
 /*
 * Krushkal's Algorithm to find minimum spanning tree for a cities-distances graph
-* Uses Piority Queue to store edges (connections bw cities)
-* Uses Array List to store cities
+* Uses Edge List (parallel int arrays, radix sorted by distance) to store edges (connections bw cities)
+* Uses Array List to store cities, interned to dense int ids through a Hash Map
 * Uses Union-Find Class to check the cycle (already connected cities)
 *
 * @author: Safal Tyagi
 * */
 
-import java.io.File;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.PriorityQueue;
-import java.util.Scanner;
 
 public class Krushkal {
 
@@ -18,23 +16,75 @@ public class Krushkal {
         int nConnections = 0;
         int nCities = cityGraph.cities.size();
         DisjSets ds = new DisjSets(nCities);
-        ArrayList<Connection> cityMST = new ArrayList<>(nCities - 1);
-        Connection con;
+        ArrayList<Connection> cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+        EdgeList edges = cityGraph.connections;
         int cityA, cityB;
 
-        // until n-1 connections needed to connect all n cities
-        while (nConnections < nCities-1) {
-            con = cityGraph.connections.poll();  // get minimum distance = (cityA, cityB)
-            cityA = cityGraph.cities.indexOf(con.source);
-            cityB = cityGraph.cities.indexOf(con.destination);
+        edges.sortByDistance();
+        // scan by increasing distance until n-1 connections connect all n cities
+        for (int i = 0; i < edges.size() && nConnections < nCities - 1; i++) {
+            cityA = edges.source[i];  // i-th minimum distance = (cityA, cityB)
+            cityB = edges.destination[i];
 
             int rootA = ds.find(cityA);
             int rootB = ds.find(cityB);
 
             if (rootA != rootB) {
-                cityMST.add(con); // accept the edge
+                cityMST.add(cityGraph.connection(i)); // accept the edge
                 ds.union(rootA, rootB); // connect them
-                //ds.union(ds.find(cityA), ds.find(cityB)); // connect them
+                nConnections++;
+            }
+        }
+        return cityMST;
+    }
+
+    /**
+     * Minimum spanning forest: one pass over the sorted connections,
+     * the result reports the component of every city.
+     */
+    public static SpanningForest kruskalForest(CityGraph cityGraph) {
+        return kClusters(cityGraph, 1);
+    }
+
+    /**
+     * Single-linkage clustering: Krushkal's stopped as soon as k components remain.
+     * With fewer than k connected components in the graph this is the spanning forest.
+     */
+    public static SpanningForest kClusters(CityGraph cityGraph, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("k = " + k + " < 1");
+        int nCities = cityGraph.cities.size();
+        int nComponents = nCities;
+        DisjSets ds = new DisjSets(nCities);
+        ArrayList<Connection> accepted = new ArrayList<>(Math.max(nCities - k, 0));
+        EdgeList edges = cityGraph.connections;
+
+        edges.sortByDistance();
+        for (int i = 0; i < edges.size() && nComponents > k; i++) {
+            int rootA = ds.find(edges.source[i]);
+            int rootB = ds.find(edges.destination[i]);
+            if (rootA != rootB) {
+                accepted.add(cityGraph.connection(i));
+                ds.union(rootA, rootB);
+                nComponents--;
+            }
+        }
+        return new SpanningForest(cityGraph, accepted, ds);
+    }
+
+    // Scan a snapshot's connections, already sorted by distance, straight from the mapped file
+    public static ArrayList<Connection> kruskalMST(GraphSnapshot snapshot) {
+        int nConnections = 0;
+        int nCities = snapshot.cityCount();
+        DisjSets ds = new DisjSets(nCities);
+        ArrayList<Connection> cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+
+        for (int i = 0; i < snapshot.connectionCount() && nConnections < nCities - 1; i++) {
+            int rootA = ds.find(snapshot.source(i));
+            int rootB = ds.find(snapshot.destination(i));
+            if (rootA != rootB) {
+                cityMST.add(snapshot.connection(i));
+                ds.union(rootA, rootB);
                 nConnections++;
             }
         }
@@ -52,27 +102,15 @@ public class Krushkal {
 
     public static void main(String[] args) throws Exception {
 
-        // Create empty CityGraph, cities and connections added as read from cvs
-        CityGraph cityGraph = new CityGraph();
-        // Read csv file
-        String csvFile = "C:/Users/tyagi/IdeaProjects/GraphMST/src/cities.csv";
-        Scanner scanner = new Scanner(new File(csvFile));
-        while (scanner.hasNext()) {
-            String line = scanner.nextLine();
-            String[] words = line.split(",");
-            int nums = words.length;
-            // source
-            //System.out.println("From: " + words[0]);
-            cityGraph.addCity(words[0]);
-            // connected cities
-            for (int i = 1; i < nums; i += 2) {
-                //System.out.println("To: " + words[i] + " " + words[i+1] + " miles");
-                // note: containsConnection check to be removed for DAG
-                if(!cityGraph.containsConnection(words[i], words[0], Integer.parseInt(words[i + 1])))
-                    cityGraph.addConnection(words[0], words[i], Integer.parseInt(words[i + 1]));
-            }
+        // Read csv file: city,neighbour,distance,... per line
+        String csvFile = args.length > 0 ? args[0] : "C:/Users/tyagi/IdeaProjects/GraphMST/src/cities.csv";
+
+        // binary snapshot written by CityGraph.save: mapped, nothing to parse
+        if (csvFile.endsWith(CityGraph.SNAPSHOT_SUFFIX)) {
+            printMST(kruskalMST(CityGraph.loadSnapshot(Paths.get(csvFile))));
+            return;
         }
-        scanner.close();
+        CityGraph cityGraph = CityGraph.load(Paths.get(csvFile));
 
         // print city graph
         //cityGraph.printCityGraph();
@@ -84,108 +122,3 @@ public class Krushkal {
         printMST(cityMST);
     }
 }
-
-/**
- * City graph class.
- *
- * @author Safal Tyagi
- */
-class CityGraph {
-
-    // Initialize graph: known size
-    CityGraph() {
-        this.cities = new ArrayList<>();
-        this.connections = new PriorityQueue<>();
-    }
-
-    public void addCity(String cityName) {
-        this.cities.add(cityName);
-    }
-
-    public void addConnection(String source, String destination, int distance) {
-        Connection connection = new Connection(source, destination, distance);
-        connections.add(connection);
-    }
-
-    public boolean containsConnection(String source, String destination, int distance) {
-        boolean found = false;
-        for (Connection connection : connections) {
-            if (connection.source.compareTo(source) == 0 &&
-                    connection.destination.compareTo(destination) == 0 &&
-                    connection.distance == distance) {
-                found = true;
-                break;
-            }
-        }
-        return  found;
-    }
-
-    public void printCityGraph() {
-        connections.forEach(connection ->
-                System.out.println("From " + connection.source +
-                        " to " + connection.destination +
-                        " " + connection.distance));
-    }
-
-    public ArrayList<String> cities;
-    public PriorityQueue<Connection> connections;
-}
-
-/**
- * Connection class for Graph edge.
- *
- * @author Safal Tyagi
- */
-class Connection implements Comparable<Connection> {
-    public String source;
-    public String destination;
-    public int distance;
-
-    Connection(String source, String destination, int distance) {
-        this.source = source;
-        this.destination = destination;
-        this.distance = distance;
-    }
-
-    @Override
-    public int compareTo(Connection other) {
-        return (this.distance - other.distance);
-    }
-}
-
-/**
- * Disjoint set class, using union by rank and path compression.
- * Elements in the set are numbered starting at 0.
- *
- * @author Mark Allen Weiss
- */
-class DisjSets {
-    // Constructor
-    public DisjSets(int numElements) {
-        s = new int[numElements];
-        for (int i = 0; i < s.length; i++)
-            s[i] = -1;
-    }
-
-    // Union
-    public void union(int root1, int root2) {
-        if (s[root2] < s[root1])  // root2 is deeper
-            s[root1] = root2;        // Make root2 new root
-        else {
-            if (s[root1] == s[root2])
-                s[root1]--;          // Update height if same
-            s[root2] = root1;        // Make root1 new root
-        }
-    }
-
-    // Find
-    public int find(int x) {
-        if (s[x] < 0)
-            return x;
-        else
-            return s[x] = find(s[x]);
-    }
-
-    // indices array
-    public int[] s;
-}
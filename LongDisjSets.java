@@ -0,0 +1,226 @@
+// LongDisjSets class
+//
+// CONSTRUCTION: with long representing initial number of sets (off-heap memory),
+//     or create( file, numElements ) / open( file ) for a memory-mapped file
+//
+// ******************PUBLIC OPERATIONS*********************
+// void union( root1, root2 ) --> Merge two sets
+// long find( x )             --> Return set containing x
+// void save( file )          --> Write the sets to a file, open( file ) reloads it
+// void force( )              --> Flush a file-backed object to disk
+// ******************ERRORS********************************
+// No error checking is performed
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Disjoint set class for more than 2^31 elements, stored off the GC heap.
+ * Same find/union semantics as DisjSets (union by rank, path compression,
+ * a root holds -(rank + 1)), with elements numbered by long from 0.
+ * The parent entries live in 1 GB chunks of direct or memory-mapped buffers.
+ *
+ * File layout: magic, numElements (8 bytes each), then one long per element,
+ * all little endian.
+ */
+public class LongDisjSets
+{
+    private static final int CHUNK_SHIFT = 27;              // 2^27 longs = 1 GB per chunk
+    private static final long CHUNK_MASK = ( 1L << CHUNK_SHIFT ) - 1;
+    private static final long MAGIC = 0x4C444A5345545331L;  // "LDJSETS1"
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * Construct the disjoint sets object in direct (off-heap) memory.
+     * @param numElements the initial number of disjoint sets.
+     */
+    public LongDisjSets( long numElements )
+    {
+        this( numElements, allocate( numElements ) );
+        fill( );
+    }
+
+    private LongDisjSets( long numElements, ByteBuffer [ ] buffers )
+    {
+        this.numElements = numElements;
+        this.buffers = buffers;
+        this.s = new LongBuffer[ buffers.length ];
+        for( int i = 0; i < buffers.length; i++ )
+            s[ i ] = buffers[ i ].order( ByteOrder.LITTLE_ENDIAN ).asLongBuffer( );
+    }
+
+    /**
+     * Construct the disjoint sets object in a new memory-mapped file.
+     * @param file the file to create or overwrite.
+     * @param numElements the initial number of disjoint sets.
+     * @return the file-backed sets.
+     */
+    public static LongDisjSets create( Path file, long numElements ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE ) )
+        {
+            writeHeader( channel, numElements );
+            LongDisjSets sets = new LongDisjSets( numElements, map( channel, numElements ) );
+            sets.fill( );
+            return sets;
+        }
+    }
+
+    /**
+     * Map sets written by save or create; changes go straight to the file.
+     * @param file the file to open.
+     * @return the file-backed sets.
+     */
+    public static LongDisjSets open( Path file ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE ) )
+        {
+            ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES ).order( ByteOrder.LITTLE_ENDIAN );
+            while( header.hasRemaining( ) && channel.read( header ) >= 0 )
+                ;
+            header.flip( );
+            if( header.remaining( ) < HEADER_BYTES || header.getLong( ) != MAGIC )
+                throw new IOException( file + " is not a LongDisjSets file" );
+            long numElements = header.getLong( );
+            if( channel.size( ) < HEADER_BYTES + 8 * numElements )
+                throw new IOException( file + " is truncated" );
+            return new LongDisjSets( numElements, map( channel, numElements ) );
+        }
+    }
+
+    /**
+     * Union two disjoint sets using the height heuristic.
+     * For simplicity, we assume root1 and root2 are distinct
+     * and represent set names.
+     * @param root1 the root of set 1.
+     * @param root2 the root of set 2.
+     */
+    public void union( long root1, long root2 )
+    {
+        long s1 = get( root1 );
+        long s2 = get( root2 );
+        if( s2 < s1 )                  // root2 is deeper
+            set( root1, root2 );       // Make root2 new root
+        else
+        {
+            if( s1 == s2 )
+                set( root1, s1 - 1 );  // Update height if same
+            set( root2, root1 );       // Make root1 new root
+        }
+    }
+
+    /**
+     * Perform a find with path compression, iteratively.
+     * Error checks omitted again for simplicity.
+     * @param x the element being searched for.
+     * @return the set containing x.
+     */
+    public long find( long x )
+    {
+        long root = x;
+        for( long parent; ( parent = get( root ) ) >= 0; )
+            root = parent;
+        for( long parent; ( parent = get( x ) ) >= 0; x = parent )
+            set( x, root );
+        return root;
+    }
+
+    public long size( )
+    {
+        return numElements;
+    }
+
+    /**
+     * Write the sets to a file that open can map again.
+     * @param file the file to create or overwrite.
+     */
+    public void save( Path file ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) )
+        {
+            writeHeader( channel, numElements );
+            long position = HEADER_BYTES;
+            for( ByteBuffer buffer : buffers )
+            {
+                ByteBuffer chunk = buffer.duplicate( );
+                chunk.clear( );
+                while( chunk.hasRemaining( ) )
+                    position += channel.write( chunk, position );
+            }
+        }
+    }
+
+    /**
+     * Flush changes of file-backed sets to disk; no-op for direct memory.
+     */
+    public void force( )
+    {
+        for( ByteBuffer buffer : buffers )
+            if( buffer instanceof MappedByteBuffer )
+                ( (MappedByteBuffer) buffer ).force( );
+    }
+
+    private long get( long x )
+    {
+        return s[ (int) ( x >>> CHUNK_SHIFT ) ].get( (int) ( x & CHUNK_MASK ) );
+    }
+
+    private void set( long x, long value )
+    {
+        s[ (int) ( x >>> CHUNK_SHIFT ) ].put( (int) ( x & CHUNK_MASK ), value );
+    }
+
+    private void fill( )
+    {
+        for( LongBuffer chunk : s )
+            for( int i = 0; i < chunk.capacity( ); i++ )
+                chunk.put( i, -1 );
+    }
+
+    private static int chunkCount( long numElements )
+    {
+        return (int) ( ( numElements + CHUNK_MASK ) >>> CHUNK_SHIFT );
+    }
+
+    private static long chunkElements( long numElements, int chunk )
+    {
+        return Math.min( 1L << CHUNK_SHIFT, numElements - ( (long) chunk << CHUNK_SHIFT ) );
+    }
+
+    private static ByteBuffer [ ] allocate( long numElements )
+    {
+        ByteBuffer [ ] buffers = new ByteBuffer[ chunkCount( numElements ) ];
+        for( int i = 0; i < buffers.length; i++ )
+            buffers[ i ] = ByteBuffer.allocateDirect( (int) ( 8 * chunkElements( numElements, i ) ) );
+        return buffers;
+    }
+
+    private static ByteBuffer [ ] map( FileChannel channel, long numElements ) throws IOException
+    {
+        ByteBuffer [ ] buffers = new ByteBuffer[ chunkCount( numElements ) ];
+        for( int i = 0; i < buffers.length; i++ )
+            buffers[ i ] = channel.map( FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + ( (long) i << ( CHUNK_SHIFT + 3 ) ), 8 * chunkElements( numElements, i ) );
+        return buffers;
+    }
+
+    private static void writeHeader( FileChannel channel, long numElements ) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES ).order( ByteOrder.LITTLE_ENDIAN );
+        header.putLong( MAGIC ).putLong( numElements ).flip( );
+        while( header.hasRemaining( ) )
+            channel.write( header, HEADER_BYTES - header.remaining( ) );
+    }
+
+    private final long numElements;
+    private final ByteBuffer [ ] buffers;
+    private final LongBuffer [ ] s;
+}
@@ -0,0 +1,75 @@
+import java.util.Arrays;
+
+/**
+ * Map from non-negative long keys to int values with no object per entry:
+ * open addressing with linear probing over parallel long[] and int[] arrays,
+ * at most 3/4 full, like ConnectionSet.
+ *
+ * @author Safal Tyagi
+ */
+class LongIntMap {
+    private static final long EMPTY = -1L;  // keys are non-negative
+
+    LongIntMap() {
+        keys = new long[16];
+        values = new int[16];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // Value of key, or missing if it is not in the map
+    public int get(long key, int missing) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? missing : values[slot];
+    }
+
+    public void put(long key, int value) {
+        if (key < 0)
+            throw new IllegalArgumentException("Negative key " + key);
+        int slot = find(key);
+        values[slot] = value;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 4L > keys.length * 3L)
+                grow();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot holding key, or the empty slot where it would go
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+    }
+
+    // SplitMix64 finalizer, so linear probing over a power-of-two table behaves
+    private static int hash(long key) {
+        long z = key * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+
+    private long[] keys;  // slot -> key, EMPTY if free
+    private int[] values;
+    private int size;
+}
@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded LRU cache of MST results keyed by CityGraph.fingerprint().
+ * The bound is on the total number of cached MST connections; least recently
+ * used results are evicted first. Misses are solved with MSTSolver outside the lock,
+ * one solve per key: solving sorts the graph's own connections in place, so a
+ * thread missing on a key that is already being solved waits for that result
+ * instead of solving (and sorting) again.
+ *
+ * @author Safal Tyagi
+ */
+class MSTCache {
+
+    MSTCache(long maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    // MST of the graph, from the cache when its content was seen before.
+    // List and connections are copies: Connection fields are public, so the cached ones never leave.
+    public ArrayList<Connection> mst(CityGraph cityGraph) {
+        long key = cityGraph.fingerprint();
+        int nCities = cityGraph.cities.size();
+        int nConnections = cityGraph.connections.size();
+        Pending solving;
+        boolean owner = false;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            // counts guard against fingerprint collisions
+            if (entry != null && entry.nCities == nCities && entry.nConnections == nConnections) {
+                hits++;
+                return copy(entry.cityMST);
+            }
+            misses++;
+            solving = pending.get(key);
+            if (solving == null) {
+                solving = new Pending(nCities, nConnections);
+                pending.put(key, solving);
+                owner = true;
+            } else if (solving.nCities != nCities || solving.nConnections != nConnections) {
+                solving = null;  // a colliding graph is being solved; solve this one uncached
+            }
+        }
+        if (solving == null)
+            return MSTSolver.mst(cityGraph);
+        if (!owner)
+            return copy(solving.result.join());
+
+        ArrayList<Connection> cityMST;
+        try {
+            cityMST = MSTSolver.mst(cityGraph);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                pending.remove(key);
+            }
+            solving.result.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            pending.remove(key);
+            Entry old = entries.put(key, new Entry(nCities, nConnections, cityMST));
+            if (old != null)
+                cachedConnections -= old.cityMST.size();
+            cachedConnections += cityMST.size();
+            evict();
+        }
+        solving.result.complete(cityMST);
+        return copy(cityMST);
+    }
+
+    private static ArrayList<Connection> copy(ArrayList<Connection> cityMST) {
+        ArrayList<Connection> copy = new ArrayList<>(cityMST.size());
+        for (Connection c : cityMST)
+            copy.add(new Connection(c.source, c.destination, c.sourceId, c.destinationId, c.distance));
+        return copy;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long cachedConnections() {
+        return cachedConnections;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cachedConnections = 0;
+    }
+
+    // Drop least recently used results until the bound holds
+    private void evict() {
+        Iterator<Entry> lru = entries.values().iterator();
+        while (cachedConnections > maxConnections && lru.hasNext()) {
+            cachedConnections -= lru.next().cityMST.size();
+            lru.remove();
+        }
+    }
+
+    private static class Entry {
+        final int nCities;
+        final int nConnections;
+        final ArrayList<Connection> cityMST;
+
+        Entry(int nCities, int nConnections, ArrayList<Connection> cityMST) {
+            this.nCities = nCities;
+            this.nConnections = nConnections;
+            this.cityMST = cityMST;
+        }
+    }
+
+    // A solve in progress, joined by threads that miss on the same key meanwhile
+    private static class Pending {
+        final int nCities;
+        final int nConnections;
+        final CompletableFuture<ArrayList<Connection>> result = new CompletableFuture<>();
+
+        Pending(int nCities, int nConnections) {
+            this.nCities = nCities;
+            this.nConnections = nConnections;
+        }
+    }
+
+    private final long maxConnections;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);  // access order
+    private final HashMap<Long, Pending> pending = new HashMap<>();
+    private long cachedConnections;
+    private long hits;
+    private long misses;
+}
@@ -0,0 +1,117 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * MST entry point, the one MSTCache solves its misses with.
+ * It runs Krushkal's: timed against Prim's over the CSR view on graphs of
+ * 2000 to 5000 cities with up to about V^2/4 connections, Krushkal's was
+ * faster every time, and Prim's also needs a 24 bytes per connection CSR copy.
+ * Prim.primMST stays available for callers that already hold a CsrGraph.
+ *
+ * @author Safal Tyagi
+ */
+class MSTSolver {
+
+    public static ArrayList<Connection> mst(CityGraph cityGraph) {
+        return Krushkal.kruskalMST(cityGraph);
+    }
+
+    // Equivalence check: every engine must give the MST weight kruskalMST gives,
+    // on random graphs big enough for FilterKruskal to partition and filter;
+    // ExternalKruskal and the snapshot path get the same graphs through files
+    public static void main(String[] args) throws IOException {
+        int nConnections = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+        Random random = new Random(42);
+        Path tmpDir = Files.createTempDirectory("mst-check");
+        int[][] shapes = {  // cities, connections, max distance + 1, connected?
+            {nConnections / 20, nConnections, 1_000_000, 1},
+            {nConnections / 20, nConnections, 10, 1},  // many ties
+            {nConnections / 4, nConnections, 1_000, 0},  // a forest
+            {2_000, nConnections, 1_000_000, 1},  // dense
+        };
+        for (int[] shape : shapes) {
+            CityGraph cityGraph = randomGraph(random, shape[0], shape[1], shape[2], shape[3] == 1);
+            long expected = weight(Krushkal.kruskalMST(cityGraph));
+            int expectedSize = Krushkal.kruskalMST(cityGraph).size();
+            check("FilterKruskal", FilterKruskal.filterKruskalMST(cityGraph), expected, expectedSize);
+            check("Boruvka", Boruvka.boruvkaMST(cityGraph), expected, expectedSize);
+            check("Prim", Prim.primMST(cityGraph), expected, expectedSize);
+            check("MSTSolver", mst(cityGraph), expected, expectedSize);
+            DynamicMST dynamic = new DynamicMST(cityGraph);
+            check("DynamicMST", dynamic.mst(), expected, expectedSize);
+
+            // then keep both up to date through more connections
+            for (int i = 0; i < 1_000; i++) {
+                int a = random.nextInt(shape[0]), b = random.nextInt(shape[0]), d = random.nextInt(shape[2]);
+                if (a != b && !cityGraph.containsConnection(a, b, d)) {
+                    cityGraph.addConnection(a, b, d);
+                    dynamic.addConnection(a, b, d);
+                }
+            }
+            ArrayList<Connection> after = Krushkal.kruskalMST(cityGraph);
+            check("DynamicMST after additions", dynamic.mst(), weight(after), after.size());
+
+            // about 8 runs, so the k-way merge runs
+            Path csvFile = tmpDir.resolve("graph.csv");
+            writeCsv(cityGraph, csvFile);
+            check("ExternalKruskal", ExternalKruskal.kruskalMST(csvFile, tmpDir, nConnections / 7 + 1),
+                    weight(after), after.size());
+            Path snapshotFile = tmpDir.resolve("graph" + CityGraph.SNAPSHOT_SUFFIX);
+            cityGraph.save(snapshotFile);
+            check("kruskalMST(GraphSnapshot)", Krushkal.kruskalMST(CityGraph.loadSnapshot(snapshotFile)),
+                    weight(after), after.size());
+            Files.delete(csvFile);
+            Files.delete(snapshotFile);
+            System.out.println("OK: " + shape[0] + " cities, " + cityGraph.connections.size()
+                    + " connections, weight " + weight(after));
+        }
+        Files.delete(tmpDir);
+    }
+
+    // One csv line per connection: city,neighbour,distance
+    private static void writeCsv(CityGraph cityGraph, Path csvFile) throws IOException {
+        EdgeList edges = cityGraph.connections;
+        try (BufferedWriter out = Files.newBufferedWriter(csvFile)) {
+            for (int i = 0; i < edges.size(); i++) {
+                out.write(cityGraph.cities.get(edges.source[i]) + "," + cityGraph.cities.get(edges.destination[i])
+                        + "," + edges.distance[i]);
+                out.newLine();
+            }
+        }
+    }
+
+    private static CityGraph randomGraph(Random random, int nCities, int nConnections, int maxDistance, boolean connected) {
+        CityGraph cityGraph = new CityGraph();
+        for (int i = 0; i < nCities; i++)
+            cityGraph.addCity("c" + i);
+        int added = 0;
+        if (connected)
+            for (int i = 1; i < nCities; i++, added++)
+                cityGraph.addConnection(random.nextInt(i), i, random.nextInt(maxDistance));
+        while (added < nConnections) {
+            int a = random.nextInt(nCities), b = random.nextInt(nCities);
+            if (a != b) {
+                cityGraph.addConnection(a, b, random.nextInt(maxDistance));
+                added++;
+            }
+        }
+        return cityGraph;
+    }
+
+    private static long weight(ArrayList<Connection> cityMST) {
+        long total = 0;
+        for (Connection connection : cityMST)
+            total += connection.distance;
+        return total;
+    }
+
+    private static void check(String engine, ArrayList<Connection> cityMST, long expected, int expectedSize) {
+        if (weight(cityMST) != expected || cityMST.size() != expectedSize)
+            throw new AssertionError(engine + ": " + cityMST.size() + " connections of weight " + weight(cityMST)
+                    + ", kruskalMST has " + expectedSize + " of weight " + expected);
+    }
+}
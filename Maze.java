@@ -1,113 +1,83 @@
+import java.io.IOException;
 import java.util.Scanner;
-import java.util.concurrent.ThreadLocalRandom;
 
 public class Maze
 {
-    static private Wall[][] walls;
+    static private WallGrid walls;
     static private DisjSets cells;
     static private int rows, cols;
 
-    static private void generateMaze()
+    // Knock down walls in random order (see WallOrder), each one looked at once.
+    // Runs until every cell is connected (perfect maze), or with
+    // untilConnected only until the entrance and exit are connected.
+    // Memory is the WallGrid (2 bits per cell) plus the DisjSets (4 bytes per cell):
+    // about 1.7 GB for 20000 x 20000, so run that with -Xmx of 2.5 GB or so.
+    static private void generateMaze(boolean untilConnected)
     {
         cells = new DisjSets(cols * rows);
-        // randomly knock down walls
-        while(cells.find(0) != cells.find(rows*cols-1)) {
-            int u = ThreadLocalRandom.current().nextInt(0, rows);
-            int v = ThreadLocalRandom.current().nextInt(0, cols);
-            Wall wall = walls[u][v];
-            if(wall.right != -1 && cells.find(wall.self) != cells.find(wall.right))
+        int exit = rows*cols-1;
+        WallOrder order = new WallOrder(rows, cols);
+        while (cells.numSets() > 1 && order.next())
+        {
+            int cell = order.cell();
+            boolean right = order.right();
+            int rootA = cells.find(cell);
+            int rootB = cells.find(right ? cell + 1 : cell + cols);
+            if (rootA != rootB)
             {
-                cells.union(cells.find(wall.self), cells.find(wall.right));
-                wall.right = -1;
-            }
-            if(wall.bottom != -1 && cells.find(wall.self) != cells.find(wall.bottom))
-            {
-                cells.union(cells.find(wall.self), cells.find(wall.bottom));
-                wall.bottom= -1;
+                cells.union(rootA, rootB);
+                if (right)
+                    walls.removeRight(cell);
+                else
+                    walls.removeBottom(cell);
+                if (untilConnected && cells.find(0) == cells.find(exit))
+                    break;
             }
         }
     }
 
+    // all walls up, bottom-right cell open as the exit
     static public void generateWalls()
     {
-        for (int i = 0; i < rows; i++)
-            for (int j = 0; j < cols; j++)
-                walls[i][j] = new Wall((i*cols)+j, -1, -1);
-        Wall thisWall;
-        // wall between cells (right and bottom walls)
-        for (int i = 0; i < rows-1; i++) {
-            for (int j = 0; j < cols-1; j++) {
-                thisWall = walls[i][j];
-                thisWall.right = thisWall.self+1;
-                thisWall.bottom = thisWall.self+cols;
-            }
-            // last column only bottom walls
-            thisWall = walls[i][cols-1];
-            thisWall.bottom = thisWall.self+cols; //self, bottom
-            thisWall.right = thisWall.self;
-        }
-        // last row, only right walls
-        for(int j=0; j<cols-1; j++) {
-            thisWall = walls[rows-1][j];
-            thisWall.bottom = thisWall.self;
-            thisWall.right = thisWall.self+1;
-        }
+        walls = new WallGrid(rows, cols);
     }
 
-    static public void printMaze()
+    // A perfect maze of the given size, for MazeSolver or MazeRenderer
+    static public WallGrid generate(int rows, int cols)
     {
-        // dummy top border
-        for (int i = 0; i < cols; i++)
-            if (i == 0) System.out.print("  ");
-            else System.out.print(" _");
-
-        System.out.println();
+        Maze.rows = rows;
+        Maze.cols = cols;
+        generateWalls();
+        generateMaze(false);
+        return walls;
+    }
 
-        for (int i = 0; i < rows; i++) {
-            if (i == 0) System.out.print(' ');
-            else System.out.print('|');// dummy left border
-            for (int j = 0; j < cols; j++) {
-                if (walls[i][j].bottom != -1)
-                    System.out.print('_');
-                else
-                    System.out.print(' ');
+    // The grid of the last generated maze
+    static public WallGrid walls()
+    {
+        return walls;
+    }
 
-                if (walls[i][j].right != -1)
-                    System.out.print('|');
-                else
-                    System.out.print(' ');
-            }
-            System.out.println();
-        }
+    // whole rows at a time through a buffered stream, see MazeRenderer
+    static public void printMaze() throws IOException
+    {
+        new MazeRenderer(walls).print();
     }
 
-    public static void main(String[] args)
+    public static void main(String[] args) throws IOException
     {
         Scanner s = new Scanner(System.in);
         System.out.print("Enter a width(columns): ");
         cols = s.nextInt();
         System.out.print("Enter a height(rows): ");
         rows = s.nextInt();
-        walls = new Wall[rows][cols];
 
         generateWalls();
         //printMaze();
-        generateMaze();
+        generateMaze(false);
         printMaze();
-    }
-}
 
-class Wall
-{
-    int self;
-    int right;
-    int bottom;
-
-    public Wall() {}
-    public Wall(int self, int right, int bottom)
-    {
-        this.self = self;
-        this.right = right;
-        this.bottom = bottom;
+        int[] path = new MazeSolver(walls).bfs();
+        System.out.println("Shortest path from entrance to exit: " + path.length + " cells");
     }
 }
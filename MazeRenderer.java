@@ -0,0 +1,127 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Renders a WallGrid in Maze.printMaze's text format, a whole strip of rows at a time.
+ * Rows are encoded into a reusable byte[] and written with one call per strip,
+ * to an OutputStream or a channel (e.g. a FileChannel). In parallel mode strips
+ * are encoded on the common fork-join pool and written in order.
+ */
+class MazeRenderer
+{
+    static final int STRIP_BYTES = 1 << 16;  // about this much output per write
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes();
+
+    MazeRenderer(WallGrid walls)
+    {
+        this.walls = walls;
+        this.rowBytes = 2*walls.cols() + 1 + NEWLINE.length;
+        this.stripRows = Math.max(1, STRIP_BYTES / rowBytes);
+    }
+
+    public void render(OutputStream out, boolean parallel) throws IOException
+    {
+        render((bytes, length) -> out.write(bytes, 0, length), parallel);
+    }
+
+    public void render(WritableByteChannel channel, boolean parallel) throws IOException
+    {
+        render((bytes, length) -> {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }, parallel);
+    }
+
+    // Render to System.out, as Maze.printMaze did
+    public void print() throws IOException
+    {
+        BufferedOutputStream out = new BufferedOutputStream(System.out, STRIP_BYTES);
+        render(out, false);
+        out.flush();
+    }
+
+    private interface Sink
+    {
+        void write(byte[] bytes, int length) throws IOException;
+    }
+
+    private void render(Sink sink, boolean parallel) throws IOException
+    {
+        int rows = walls.rows();
+        byte[] top = new byte[rowBytes - 1];
+        int n = encodeTop(top);
+        sink.write(top, n);
+        if (!parallel)
+        {
+            byte[] strip = new byte[stripRows * rowBytes];
+            for (int row = 0; row < rows; row += stripRows)
+                sink.write(strip, encodeRows(row, Math.min(row + stripRows, rows), strip));
+            return;
+        }
+
+        // keep a bounded window of strips in flight, write them back in order
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = 2 * pool.getParallelism();
+        ArrayDeque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+        for (int row = 0; row < rows || !pending.isEmpty(); )
+        {
+            while (row < rows && pending.size() < window)
+            {
+                int from = row, to = Math.min(row + stripRows, rows);
+                pending.add(pool.submit(() -> {
+                    byte[] strip = new byte[(to - from) * rowBytes];
+                    encodeRows(from, to, strip);
+                    return strip;
+                }));
+                row = to;
+            }
+            byte[] strip = pending.poll().join();
+            sink.write(strip, strip.length);
+        }
+    }
+
+    // dummy top border
+    private int encodeTop(byte[] out)
+    {
+        int cols = walls.cols();
+        int at = 0;
+        for (int j = 0; j < cols; j++)
+        {
+            out[at++] = ' ';
+            out[at++] = (byte) (j == 0 ? ' ' : '_');
+        }
+        for (byte b : NEWLINE)
+            out[at++] = b;
+        return at;
+    }
+
+    // Encode rows [from, to) into out; returns the number of bytes
+    private int encodeRows(int from, int to, byte[] out)
+    {
+        int cols = walls.cols();
+        int at = 0;
+        for (int i = from; i < to; i++)
+        {
+            out[at++] = (byte) (i == 0 ? ' ' : '|');  // dummy left border
+            for (int j = 0, cell = i*cols; j < cols; j++, cell++)
+            {
+                out[at++] = (byte) (walls.hasBottom(cell) ? '_' : ' ');
+                out[at++] = (byte) (walls.hasRight(cell) ? '|' : ' ');
+            }
+            for (byte b : NEWLINE)
+                out[at++] = b;
+        }
+        return at;
+    }
+
+    private final WallGrid walls;
+    private final int rowBytes;   // one cell row, newline included
+    private final int stripRows;
+}
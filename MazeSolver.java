@@ -0,0 +1,282 @@
+import java.util.Arrays;
+
+/**
+ * Shortest path through a WallGrid from the entrance (cell 0) to the exit
+ * (cell rows*cols-1), by BFS, bidirectional BFS or A* with Manhattan distance.
+ * All work arrays (ring-buffer queues, visited bitsets, parent links, heap)
+ * are allocated once per solver and reused across calls, so a search
+ * allocates nothing per cell. Paths come back as the cell ids from entrance
+ * to exit, or an empty array when the exit cannot be reached.
+ */
+public class MazeSolver
+{
+    public MazeSolver(WallGrid walls)
+    {
+        this.walls = walls;
+        this.rows = walls.rows();
+        this.cols = walls.cols();
+        int n = rows * cols;
+        this.parent = new int[n];
+        this.visited = new long[(n + 63) >>> 6];
+        this.queue = new IntRing(n);
+    }
+
+    public int[] bfs()
+    {
+        int exit = rows*cols - 1;
+        Arrays.fill(visited, 0);
+        queue.clear();
+        mark(visited, 0);
+        parent[0] = -1;
+        queue.add(0);
+        while (!queue.isEmpty())
+        {
+            int cell = queue.poll();
+            if (cell == exit)
+                return path(exit);
+            int m = neighbors(cell);
+            for (int k = 0; k < m; k++)
+            {
+                int next = adjacent[k];
+                if (!marked(visited, next))
+                {
+                    mark(visited, next);
+                    parent[next] = cell;
+                    queue.add(next);
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    // Searches from both ends a level at a time, always growing the smaller frontier.
+    // The first level that touches the other side's visited set holds a shortest path.
+    public int[] bidirectionalBfs()
+    {
+        int exit = rows*cols - 1;
+        if (exit == 0)
+            return new int[] {0};
+        if (backVisited == null)
+        {
+            backVisited = new long[visited.length];
+            backQueue = new IntRing(rows * cols);
+        }
+        Arrays.fill(visited, 0);
+        Arrays.fill(backVisited, 0);
+        queue.clear();
+        backQueue.clear();
+        mark(visited, 0);
+        mark(backVisited, exit);
+        parent[0] = -1;
+        parent[exit] = -1;
+        queue.add(0);
+        backQueue.add(exit);
+
+        // a cell keeps the parent given by the side that reached it first,
+        // so the two chains meet across one edge
+        while (!queue.isEmpty() && !backQueue.isEmpty())
+        {
+            boolean forward = queue.size() <= backQueue.size();
+            IntRing frontier = forward ? queue : backQueue;
+            long[] mine = forward ? visited : backVisited;
+            long[] theirs = forward ? backVisited : visited;
+            for (int level = frontier.size(); level > 0; level--)
+            {
+                int cell = frontier.poll();
+                int m = neighbors(cell);
+                for (int k = 0; k < m; k++)
+                {
+                    int next = adjacent[k];
+                    if (marked(theirs, next))
+                        return forward ? join(cell, next) : join(next, cell);
+                    if (!marked(mine, next))
+                    {
+                        mark(mine, next);
+                        parent[next] = cell;
+                        frontier.add(next);
+                    }
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    // A* with the Manhattan distance to the exit; it is consistent on the grid,
+    // so each cell is settled once. Ties go to the cell farther from the entrance.
+    public int[] aStar()
+    {
+        int exit = rows*cols - 1;
+        if (heap == null)
+        {
+            heap = new IndexedDaryHeap(rows * cols, 4);
+            distance = new int[rows * cols];
+        }
+        heap.clear();
+        Arrays.fill(visited, 0);     // settled cells
+        parent[0] = -1;
+        distance[0] = 0;
+        heap.insert(0, key(0, 0));
+        while (!heap.isEmpty())
+        {
+            int cell = heap.deleteMin();
+            if (cell == exit)
+                return path(exit);
+            mark(visited, cell);
+            int m = neighbors(cell);
+            for (int k = 0; k < m; k++)
+            {
+                int next = adjacent[k];
+                if (marked(visited, next))
+                    continue;
+                int d = distance[cell] + 1;
+                if (!heap.contains(next) || d < distance[next])
+                {
+                    distance[next] = d;
+                    parent[next] = cell;
+                    heap.insertOrDecrease(next, key(next, d));
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    private long key(int cell, int d)
+    {
+        int h = (rows - 1 - cell / cols) + (cols - 1 - cell % cols);
+        return ((long) (d + h) << 32) + (Integer.MAX_VALUE - d);
+    }
+
+    // Open neighbours of cell into adjacent[]; returns how many
+    private int neighbors(int cell)
+    {
+        int row = cell / cols, col = cell % cols;
+        int m = 0;
+        if (col < cols-1 && !walls.hasRight(cell))
+            adjacent[m++] = cell + 1;
+        if (row < rows-1 && !walls.hasBottom(cell))
+            adjacent[m++] = cell + cols;
+        if (col > 0 && !walls.hasRight(cell - 1))
+            adjacent[m++] = cell - 1;
+        if (row > 0 && !walls.hasBottom(cell - cols))
+            adjacent[m++] = cell - cols;
+        return m;
+    }
+
+    // Entrance to exit, following parent links back from the exit
+    private int[] path(int exit)
+    {
+        int length = 0;
+        for (int c = exit; c != -1; c = parent[c])
+            length++;
+        int[] path = new int[length];
+        for (int c = exit; c != -1; c = parent[c])
+            path[--length] = c;
+        return path;
+    }
+
+    // Path through the edge (a, b), a reached from the entrance and b from the exit
+    private int[] join(int a, int b)
+    {
+        int front = 0, back = 0;
+        for (int c = a; c != -1; c = parent[c])
+            front++;
+        for (int c = b; c != -1; c = parent[c])
+            back++;
+        int[] path = new int[front + back];
+        int at = front;
+        for (int c = a; c != -1; c = parent[c])
+            path[--at] = c;
+        at = front;
+        for (int c = b; c != -1; c = parent[c])
+            path[at++] = c;
+        return path;
+    }
+
+    static private boolean marked(long[] set, int cell)
+    {
+        return (set[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    static private void mark(long[] set, int cell)
+    {
+        set[cell >>> 6] |= 1L << cell;
+    }
+
+    // Fixed-capacity FIFO of ints; capacity rounded up to a power of two
+    static private class IntRing
+    {
+        IntRing(int capacity)
+        {
+            elements = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+            mask = elements.length - 1;
+        }
+
+        boolean isEmpty()
+        {
+            return head == tail;
+        }
+
+        int size()
+        {
+            return tail - head;
+        }
+
+        void add(int x)
+        {
+            elements[tail++ & mask] = x;
+        }
+
+        int poll()
+        {
+            return elements[head++ & mask];
+        }
+
+        void clear()
+        {
+            head = tail = 0;
+        }
+
+        private final int[] elements;
+        private final int mask;
+        private int head, tail;
+    }
+
+    // Test program: solve one large Maze three ways, checking the paths agree
+    // (a perfect maze has exactly one), then a small one on screen
+    public static void main(String[] args) throws java.io.IOException
+    {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        MazeSolver solver = new MazeSolver(Maze.generate(n, n));
+        for (int round = 0; round < 3; round++)
+        {
+            long start = System.nanoTime();
+            int[] a = solver.bfs();
+            long bfs = System.nanoTime() - start;
+            start = System.nanoTime();
+            int[] b = solver.bidirectionalBfs();
+            long bidirectional = System.nanoTime() - start;
+            start = System.nanoTime();
+            int[] c = solver.aStar();
+            long aStar = System.nanoTime() - start;
+            if (a.length == 0 || !Arrays.equals(a, b) || !Arrays.equals(a, c))
+                throw new AssertionError("paths differ: " + a.length + "/" + b.length + "/" + c.length + " cells");
+            System.out.printf("%dx%d path %d cells: bfs %d ms, bidirectional %d ms, A* %d ms%n",
+                    n, n, a.length, bfs / 1_000_000, bidirectional / 1_000_000, aStar / 1_000_000);
+        }
+        WallGrid small = Maze.generate(6, 10);
+        new MazeRenderer(small).print();
+        System.out.println(Arrays.toString(new MazeSolver(small).bfs()));
+    }
+
+    private final WallGrid walls;
+    private final int rows, cols;
+    private final int[] parent;
+    private final long[] visited;
+    private final IntRing queue;
+    private final int[] adjacent = new int[4];
+
+    private long[] backVisited;      // bidirectional search, from the exit
+    private IntRing backQueue;
+    private IndexedDaryHeap heap;    // A*
+    private int[] distance;
+}
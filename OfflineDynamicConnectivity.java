@@ -0,0 +1,240 @@
+// OfflineDynamicConnectivity class
+//
+// CONSTRUCTION: with int representing the number of vertices
+//
+// ******************PUBLIC OPERATIONS*********************
+// void addEdge( u, v )       --> Add edge u-v from now on
+// void removeEdge( u, v )    --> Remove a present edge u-v from now on
+// int connected( u, v )      --> Ask whether u and v are connected now; returns query id
+// int countComponents( )     --> Ask for the number of components now; returns query id
+// int [ ] solve( )           --> Answer every query, indexed by query id
+// ******************ERRORS********************************
+// removeEdge of an edge that is not present throws IllegalArgumentException
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline dynamic connectivity: edges are added and removed over time
+ * and queries are answered after the whole sequence is known.
+ * Every edge is alive over an interval of operations; the interval is
+ * stored in the O(log T) segment tree nodes that cover it. A depth-first
+ * walk of the tree unions a node's edges on the way down and rolls them
+ * back on the way up, so each leaf sees exactly the edges alive at its time.
+ * O(T log T log V) overall for T operations.
+ */
+public class OfflineDynamicConnectivity
+{
+    /**
+     * Construct an empty graph.
+     * @param numVertices the number of vertices, numbered from 0.
+     */
+    public OfflineDynamicConnectivity( int numVertices )
+    {
+        this.numVertices = numVertices;
+    }
+
+    public void addEdge( int u, int v )
+    {
+        open.computeIfAbsent( key( u, v ), k -> new ArrayDeque<>( ) ).push( nOps );
+        addOp( -1, u, v );
+    }
+
+    public void removeEdge( int u, int v )
+    {
+        ArrayDeque<Integer> starts = open.get( key( u, v ) );
+        if( starts == null || starts.isEmpty( ) )
+            throw new IllegalArgumentException( "Edge " + u + "-" + v + " is not present" );
+        addInterval( starts.pop( ), nOps, u, v );
+        addOp( -1, u, v );
+    }
+
+    /**
+     * @return the query id; its answer is 1 if u and v are connected, else 0.
+     */
+    public int connected( int u, int v )
+    {
+        addOp( CONNECTED, u, v );
+        return nQueries++;
+    }
+
+    /**
+     * @return the query id; its answer is the number of components.
+     */
+    public int countComponents( )
+    {
+        addOp( COUNT, 0, 0 );
+        return nQueries++;
+    }
+
+    /**
+     * Answer all queries asked so far.
+     * @return answers indexed by query id.
+     */
+    public int [ ] solve( )
+    {
+        int [ ] answers = new int[ nQueries ];
+        if( nOps == 0 )
+            return answers;
+
+        // edges still present at the end live until the last operation
+        int nClosed = nIntervals;
+        for( Map.Entry<Long, ArrayDeque<Integer>> e : open.entrySet( ) )
+            for( int start : e.getValue( ) )
+                addInterval( start, nOps, (int) ( e.getKey( ) >>> 32 ), (int) (long) e.getKey( ) );
+
+        size = 1;
+        while( size < nOps )
+            size <<= 1;
+        head = new int[ 2 * size ];
+        Arrays.fill( head, -1 );
+        nEntries = 0;
+        for( int i = 0; i < nIntervals; i++ )
+            insert( i, 1, 0, size, intervalStart[ i ], intervalEnd[ i ] );
+
+        // queries before position i, to skip subtrees without queries
+        queriesBefore = new int[ size + 1 ];
+        for( int i = 0; i < size; i++ )
+            queriesBefore[ i + 1 ] = queriesBefore[ i ] + ( i < nOps && opKind[ i ] >= 0 ? 1 : 0 );
+
+        ds = new RollbackDisjSets( numVertices );
+        walk( 1, 0, size, answers );
+        nIntervals = nClosed;  // solve can be called again after more operations
+        return answers;
+    }
+
+    private void walk( int node, int lo, int hi, int [ ] answers )
+    {
+        if( queriesBefore[ hi ] == queriesBefore[ lo ] )
+            return;
+        int mark = ds.snapshot( );
+        for( int e = head[ node ]; e >= 0; e = entryNext[ e ] )
+            ds.union( intervalU[ entryInterval[ e ] ], intervalV[ entryInterval[ e ] ] );
+        if( hi - lo == 1 )
+        {
+            int query = queriesBefore[ lo ];
+            if( opKind[ lo ] == CONNECTED )
+                answers[ query ] = ds.find( opU[ lo ] ) == ds.find( opV[ lo ] ) ? 1 : 0;
+            else
+                answers[ query ] = ds.numSets( );
+        }
+        else
+        {
+            int mid = ( lo + hi ) >>> 1;
+            walk( 2 * node, lo, mid, answers );
+            walk( 2 * node + 1, mid, hi, answers );
+        }
+        ds.rollback( mark );
+    }
+
+    // Hang interval i on the nodes covering [from, to)
+    private void insert( int i, int node, int lo, int hi, int from, int to )
+    {
+        if( to <= lo || hi <= from )
+            return;
+        if( from <= lo && hi <= to )
+        {
+            if( nEntries == entryInterval.length )
+            {
+                int capacity = Math.max( 16, nEntries * 2 );
+                entryInterval = Arrays.copyOf( entryInterval, capacity );
+                entryNext = Arrays.copyOf( entryNext, capacity );
+            }
+            entryInterval[ nEntries ] = i;
+            entryNext[ nEntries ] = head[ node ];
+            head[ node ] = nEntries++;
+            return;
+        }
+        int mid = ( lo + hi ) >>> 1;
+        insert( i, 2 * node, lo, mid, from, to );
+        insert( i, 2 * node + 1, mid, hi, from, to );
+    }
+
+    private void addOp( int kind, int u, int v )
+    {
+        if( nOps == opKind.length )
+        {
+            int capacity = Math.max( 16, nOps * 2 );
+            opKind = Arrays.copyOf( opKind, capacity );
+            opU = Arrays.copyOf( opU, capacity );
+            opV = Arrays.copyOf( opV, capacity );
+        }
+        opKind[ nOps ] = kind;
+        opU[ nOps ] = u;
+        opV[ nOps ] = v;
+        nOps++;
+    }
+
+    private void addInterval( int start, int end, int u, int v )
+    {
+        if( nIntervals == intervalStart.length )
+        {
+            int capacity = Math.max( 16, nIntervals * 2 );
+            intervalStart = Arrays.copyOf( intervalStart, capacity );
+            intervalEnd = Arrays.copyOf( intervalEnd, capacity );
+            intervalU = Arrays.copyOf( intervalU, capacity );
+            intervalV = Arrays.copyOf( intervalV, capacity );
+        }
+        intervalStart[ nIntervals ] = start;
+        intervalEnd[ nIntervals ] = end;
+        intervalU[ nIntervals ] = u;
+        intervalV[ nIntervals ] = v;
+        nIntervals++;
+    }
+
+    private static long key( int u, int v )
+    {
+        return (long) Math.min( u, v ) << 32 | Math.max( u, v );
+    }
+
+    private static final int CONNECTED = 0;
+    private static final int COUNT = 1;
+
+    private final int numVertices;
+    private final HashMap<Long, ArrayDeque<Integer>> open = new HashMap<>( );  // edge -> start times
+
+    // operations in order; kind -1 for edge updates
+    private int [ ] opKind = new int[ 0 ];
+    private int [ ] opU = new int[ 0 ];
+    private int [ ] opV = new int[ 0 ];
+    private int nOps;
+    private int nQueries;
+
+    // edge lifetimes [start, end) over operation positions
+    private int [ ] intervalStart = new int[ 0 ];
+    private int [ ] intervalEnd = new int[ 0 ];
+    private int [ ] intervalU = new int[ 0 ];
+    private int [ ] intervalV = new int[ 0 ];
+    private int nIntervals;
+
+    // segment tree over positions; each node lists its intervals through entryNext
+    private int size;
+    private int [ ] head;
+    private int [ ] entryInterval = new int[ 0 ];
+    private int [ ] entryNext = new int[ 0 ];
+    private int nEntries;
+    private int [ ] queriesBefore;
+    private RollbackDisjSets ds;
+
+
+    // Test program
+    public static void main( String [ ] args )
+    {
+        OfflineDynamicConnectivity g = new OfflineDynamicConnectivity( 4 );
+        g.addEdge( 0, 1 );
+        g.addEdge( 1, 2 );
+        int q0 = g.connected( 0, 2 );   // 1
+        int q1 = g.countComponents( );  // 2: {0,1,2} {3}
+        g.removeEdge( 0, 1 );
+        int q2 = g.connected( 0, 2 );   // 0
+        g.addEdge( 2, 3 );
+        int q3 = g.countComponents( );  // 2: {0} {1,2,3}
+        int [ ] answers = g.solve( );
+        System.out.println( "connected(0, 2): " + answers[ q0 ] );
+        System.out.println( "components: " + answers[ q1 ] );
+        System.out.println( "connected(0, 2) after removing 0-1: " + answers[ q2 ] );
+        System.out.println( "components after adding 2-3: " + answers[ q3 ] );
+    }
+}
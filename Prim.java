@@ -0,0 +1,50 @@
+import java.util.ArrayList;
+
+/**
+ * Prim's algorithm over the CSR view of a CityGraph, with an indexed d-ary heap.
+ * The heap arity follows the average degree, so dense graphs get a wide,
+ * shallow heap and cheap decreaseKey. Disconnected graphs give a spanning forest.
+ *
+ * @author Safal Tyagi
+ */
+class Prim {
+
+    public static ArrayList<Connection> primMST(CityGraph cityGraph) {
+        return primMST(cityGraph, CsrGraph.of(cityGraph));
+    }
+
+    public static ArrayList<Connection> primMST(CityGraph cityGraph, CsrGraph csr) {
+        int nCities = csr.nCities;
+        ArrayList<Connection> cityMST = new ArrayList<>(Math.max(nCities - 1, 0));
+        if (nCities == 0)
+            return cityMST;
+        int d = Math.max(2, Math.min(64, csr.target.length / nCities));
+        IndexedDaryHeap heap = new IndexedDaryHeap(nCities, d);
+        boolean[] inTree = new boolean[nCities];
+        int[] via = new int[nCities];  // edge that reaches the city cheapest so far
+
+        for (int start = 0; start < nCities; start++) {
+            if (inTree[start])
+                continue;
+            via[start] = -1;
+            heap.insert(start, 0);
+            while (!heap.isEmpty()) {
+                int city = heap.deleteMin();
+                inTree[city] = true;
+                if (via[city] >= 0)
+                    cityMST.add(cityGraph.connection(via[city])); // accept the edge
+                for (int i = csr.offsets[city], end = csr.offsets[city + 1]; i < end; i++) {
+                    int next = csr.target[i];
+                    if (inTree[next])
+                        continue;
+                    int distance = csr.distance[i];
+                    if (!heap.contains(next) || distance < heap.key(next)) {
+                        via[next] = csr.edge[i];
+                        heap.insertOrDecrease(next, distance);
+                    }
+                }
+            }
+        }
+        return cityMST;
+    }
+}
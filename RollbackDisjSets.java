@@ -0,0 +1,130 @@
+// RollbackDisjSets class
+//
+// CONSTRUCTION: with int representing initial number of sets
+//
+// ******************PUBLIC OPERATIONS*********************
+// boolean union( x, y )      --> Merge the sets containing x and y
+// int find( x )              --> Return set containing x
+// int numSets( )             --> Return the number of sets
+// int snapshot( )            --> Return a mark for the current state
+// void rollback( mark )      --> Undo every union made after mark
+// ******************ERRORS********************************
+// rollback to a mark newer than the current state throws IllegalArgumentException
+
+import java.util.Arrays;
+
+/**
+ * Disjoint set class with undo, for offline dynamic connectivity.
+ * Union by rank and no path compression, so every union changes at most
+ * two entries and find stays O(log n). Each union is logged; rollback
+ * restores the logged entries in reverse order, O(1) per undone union.
+ * Elements in the set are numbered starting at 0.
+ */
+public class RollbackDisjSets
+{
+    /**
+     * Construct the disjoint sets object.
+     * @param numElements the initial number of disjoint sets.
+     */
+    public RollbackDisjSets( int numElements )
+    {
+        s = new int [ numElements ];
+        for( int i = 0; i < s.length; i++ )
+            s[ i ] = -1;
+        numSets = numElements;
+    }
+
+    /**
+     * Union the sets containing x and y using the height heuristic.
+     * @param x an element of set 1.
+     * @param y an element of set 2.
+     * @return true if two sets were merged.
+     */
+    public boolean union( int x, int y )
+    {
+        int root1 = find( x );
+        int root2 = find( y );
+        if( root1 == root2 )
+            return false;
+        if( s[ root2 ] < s[ root1 ] )  // root2 is deeper, it stays root
+        {
+            int t = root1; root1 = root2; root2 = t;
+        }
+        boolean bump = s[ root1 ] == s[ root2 ];
+        log( root2, s[ root2 ], bump );
+        if( bump )
+            s[ root1 ]--;              // Update height if same
+        s[ root2 ] = root1;            // Make root1 new root
+        numSets--;
+        return true;
+    }
+
+    /**
+     * Perform a find without path compression, so unions can be undone.
+     * @param x the element being searched for.
+     * @return the set containing x.
+     */
+    public int find( int x )
+    {
+        while( s[ x ] >= 0 )
+            x = s[ x ];
+        return x;
+    }
+
+    public int numSets( )
+    {
+        return numSets;
+    }
+
+    /**
+     * @return a mark that rollback can return to.
+     */
+    public int snapshot( )
+    {
+        return logSize;
+    }
+
+    /**
+     * Undo every union made since snapshot returned mark.
+     * @param mark a value returned by snapshot.
+     */
+    public void rollback( int mark )
+    {
+        if( mark < 0 || mark > logSize )
+            throw new IllegalArgumentException( "No snapshot " + mark + "; log size " + logSize );
+        while( logSize > mark )
+        {
+            logSize--;
+            int child = logChild[ logSize ];
+            int parent = s[ child ];
+            s[ child ] = logValue[ logSize ];
+            if( logBump[ logSize ] )
+                s[ parent ]++;
+            numSets++;
+        }
+    }
+
+    private void log( int child, int value, boolean bump )
+    {
+        if( logSize == logChild.length )
+        {
+            int capacity = Math.max( 16, logSize * 2 );
+            logChild = Arrays.copyOf( logChild, capacity );
+            logValue = Arrays.copyOf( logValue, capacity );
+            logBump = Arrays.copyOf( logBump, capacity );
+        }
+        logChild[ logSize ] = child;
+        logValue[ logSize ] = value;
+        logBump[ logSize ] = bump;
+        logSize++;
+    }
+
+    private int [ ] s;
+    private int numSets;
+
+    // union log: root that was linked, its old entry, whether the new root's rank grew
+    private int [ ] logChild = new int[ 0 ];
+    private int [ ] logValue = new int[ 0 ];
+    private boolean [ ] logBump = new boolean[ 0 ];
+    private int logSize;
+}
@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Result of Krushkal.kruskalForest and Krushkal.kClusters:
+ * the accepted connections plus a component (cluster) label for every city.
+ * Labels are dense, 0 .. componentCount()-1, numbered in order of their smallest city id.
+ *
+ * @author Safal Tyagi
+ */
+class SpanningForest {
+
+    SpanningForest(CityGraph cityGraph, ArrayList<Connection> connections, DisjSets ds) {
+        int nCities = cityGraph.cities.size();
+        this.cityGraph = cityGraph;
+        this.connections = connections;
+        this.component = new int[nCities];
+        int[] label = new int[nCities];
+        Arrays.fill(label, -1);
+        int n = 0;
+        for (int city = 0; city < nCities; city++) {
+            int root = ds.find(city);
+            if (label[root] < 0)
+                label[root] = n++;
+            component[city] = label[root];
+        }
+        this.nComponents = n;
+    }
+
+    public ArrayList<Connection> connections() {
+        return connections;
+    }
+
+    public int componentCount() {
+        return nComponents;
+    }
+
+    public int componentOf(int city) {
+        return component[city];
+    }
+
+    public long totalDistance() {
+        long total = 0;
+        for (Connection connection : connections)
+            total += connection.distance;
+        return total;
+    }
+
+    // City names of every component, by label
+    public ArrayList<ArrayList<String>> components() {
+        ArrayList<ArrayList<String>> components = new ArrayList<>(nComponents);
+        for (int c = 0; c < nComponents; c++)
+            components.add(new ArrayList<>());
+        for (int city = 0; city < component.length; city++)
+            components.get(component[city]).add(cityGraph.cities.get(city));
+        return components;
+    }
+
+    public void printComponents() {
+        ArrayList<ArrayList<String>> components = components();
+        for (int c = 0; c < nComponents; c++)
+            System.out.println("Component " + c + " (" + components.get(c).size() + " cities): " + components.get(c));
+    }
+
+    private final CityGraph cityGraph;
+    private final ArrayList<Connection> connections;
+    private final int[] component;  // city -> label
+    private final int nComponents;
+}
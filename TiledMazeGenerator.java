@@ -0,0 +1,156 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Perfect-maze generator that splits the grid into tiles.
+ * Every tile is carved on its own fork-join task by the same shuffled-wall
+ * Kruskal as Maze.generateMaze, with a union-find local to the tile. The tiles
+ * are then joined by a spanning tree over the tile grid: one random seam wall
+ * per pair of neighbouring tiles, knocked down only when a ConcurrentDisjSets
+ * over tile ids says the two tiles were not yet connected.
+ * Unlike Maze, all state lives in the instance.
+ */
+public class TiledMazeGenerator
+{
+    public static final int DEFAULT_TILE = 256;
+
+    public TiledMazeGenerator(int rows, int cols)
+    {
+        this(rows, cols, DEFAULT_TILE, DEFAULT_TILE);
+    }
+
+    public TiledMazeGenerator(int rows, int cols, int tileRows, int tileCols)
+    {
+        if (rows <= 0 || cols <= 0 || tileRows <= 0 || tileCols <= 0)
+            throw new IllegalArgumentException("rows, cols and tile sizes must be positive");
+        this.rows = rows;
+        this.cols = cols;
+        this.tileRows = tileRows;
+        this.tileCols = tileCols;
+        this.tilesDown = (rows + tileRows - 1) / tileRows;
+        this.tilesAcross = (cols + tileCols - 1) / tileCols;
+    }
+
+    public WallGrid generate()
+    {
+        return generate(ForkJoinPool.commonPool());
+    }
+
+    public WallGrid generate(ForkJoinPool pool)
+    {
+        WallGrid walls = new WallGrid(rows, cols);
+        int nTiles = tilesDown * tilesAcross;
+        pool.invoke(new ForBlocks(0, nTiles, tile -> carveTile(walls, tile)));
+
+        // seam k < nTiles joins tile k to its right neighbour, k >= nTiles tile k-nTiles to the one below
+        int[] seams = shuffledSeams();
+        ConcurrentDisjSets tiles = new ConcurrentDisjSets(nTiles);
+        int nBlocks = Math.max(1, Math.min(seams.length / SEAM_BLOCK, 4 * pool.getParallelism()));
+        pool.invoke(new ForBlocks(0, nBlocks, block -> {
+            int from = (int) ((long) seams.length * block / nBlocks);
+            int to = (int) ((long) seams.length * (block + 1) / nBlocks);
+            for (int k = from; k < to; k++)
+                joinTiles(walls, tiles, seams[k], nTiles);
+        }));
+        return walls;
+    }
+
+    // Kruskal over the interior walls of one tile, in random order
+    private void carveTile(WallGrid walls, int tile)
+    {
+        int top = (tile / tilesAcross) * tileRows;
+        int left = (tile % tilesAcross) * tileCols;
+        int h = Math.min(tileRows, rows - top);
+        int w = Math.min(tileCols, cols - left);
+
+        DisjSets cells = new DisjSets(h * w);
+        int sets = h * w;
+        WallOrder order = new WallOrder(h, w);
+        while (sets > 1 && order.next())
+        {
+            int local = order.cell();
+            boolean right = order.right();
+            int rootA = cells.find(local);
+            int rootB = cells.find(right ? local + 1 : local + w);
+            if (rootA != rootB)
+            {
+                cells.union(rootA, rootB);
+                sets--;
+                int cell = (top + local / w) * cols + left + local % w;
+                if (right)
+                    walls.removeRightAtomically(cell);
+                else
+                    walls.removeBottomAtomically(cell);
+            }
+        }
+    }
+
+    private int[] shuffledSeams()
+    {
+        int nTiles = tilesDown * tilesAcross;
+        int[] seams = new int[tilesDown*(tilesAcross-1) + (tilesDown-1)*tilesAcross];
+        int n = 0;
+        for (int tile = 0; tile < nTiles; tile++)
+        {
+            if (tile % tilesAcross < tilesAcross-1)
+                seams[n++] = tile;
+            if (tile / tilesAcross < tilesDown-1)
+                seams[n++] = nTiles + tile;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int k = n-1; k > 0; k--)
+        {
+            int r = random.nextInt(k + 1);
+            int t = seams[k];
+            seams[k] = seams[r];
+            seams[r] = t;
+        }
+        return seams;
+    }
+
+    // knock down a random wall on the seam if the two tiles are still apart
+    private void joinTiles(WallGrid walls, ConcurrentDisjSets tiles, int seam, int nTiles)
+    {
+        boolean right = seam < nTiles;
+        int tile = right ? seam : seam - nTiles;
+        if (!tiles.union(tile, right ? tile + 1 : tile + tilesAcross))
+            return;
+        int top = (tile / tilesAcross) * tileRows;
+        int left = (tile % tilesAcross) * tileCols;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (right)
+        {
+            int row = top + random.nextInt(Math.min(tileRows, rows - top));
+            walls.removeRightAtomically(row*cols + left + tileCols - 1);
+        }
+        else
+        {
+            int col = left + random.nextInt(Math.min(tileCols, cols - left));
+            walls.removeBottomAtomically((top + tileRows - 1)*cols + col);
+        }
+    }
+
+    // Test program: time against a single tile, then print a small one
+    public static void main(String[] args) throws java.io.IOException
+    {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        for (int round = 0; round < 3; round++)
+        {
+            long start = System.nanoTime();
+            new TiledMazeGenerator(n, n, n, n).generate();
+            long single = System.nanoTime() - start;
+            start = System.nanoTime();
+            new TiledMazeGenerator(n, n).generate();
+            long tiled = System.nanoTime() - start;
+            System.out.printf("%dx%d: one tile %d ms, %dx%d tiles %d ms%n", n, n,
+                    single / 1_000_000, DEFAULT_TILE, DEFAULT_TILE, tiled / 1_000_000);
+        }
+        new MazeRenderer(new TiledMazeGenerator(8, 16, 4, 5).generate()).print();
+    }
+
+    private static final int SEAM_BLOCK = 1024;
+
+    private final int rows, cols;
+    private final int tileRows, tileCols;
+    private final int tilesDown, tilesAcross;
+}
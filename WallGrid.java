@@ -0,0 +1,94 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Maze walls packed two bits per cell into a long[] bitset.
+ * Bit 2c is the right wall of cell c and bit 2c+1 its bottom wall
+ * (cells numbered row by row); a set bit is a standing wall.
+ * A new grid has every wall up, like Maze.generateWalls, except around the
+ * bottom-right cell, which is left open as the exit.
+ * The grid alone is 2 bits per cell; generators also need their own
+ * union-find over the cells, which dominates (4 bytes per cell for DisjSets).
+ * The *Atomically removers may be called from several threads at once
+ * (neighbouring cells share a word); the plain ones may not.
+ */
+class WallGrid
+{
+    WallGrid(int rows, int cols)
+    {
+        if ((long) rows * cols > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(rows + " x " + cols + " cells do not fit int cell ids");
+        this.rows = rows;
+        this.cols = cols;
+        long nBits = 2L * rows * cols;
+        bits = new long[(int) ((nBits + 63) >>> 6)];
+        Arrays.fill(bits, -1L);
+        if (nBits > 0)
+        {
+            bits[bits.length - 1] = -1L >>> (-nBits & 63);  // no bits past the last cell
+            removeRight(rows*cols - 1);
+            removeBottom(rows*cols - 1);
+        }
+    }
+
+    public int rows()
+    {
+        return rows;
+    }
+
+    public int cols()
+    {
+        return cols;
+    }
+
+    public boolean hasRight(int cell)
+    {
+        return get(2L * cell);
+    }
+
+    public boolean hasBottom(int cell)
+    {
+        return get(2L * cell + 1);
+    }
+
+    public void removeRight(int cell)
+    {
+        clear(2L * cell);
+    }
+
+    public void removeBottom(int cell)
+    {
+        clear(2L * cell + 1);
+    }
+
+    public void removeRightAtomically(int cell)
+    {
+        clearAtomically(2L * cell);
+    }
+
+    public void removeBottomAtomically(int cell)
+    {
+        clearAtomically(2L * cell + 1);
+    }
+
+    private boolean get(long bit)
+    {
+        return (bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    private void clear(long bit)
+    {
+        bits[(int) (bit >>> 6)] &= ~(1L << bit);
+    }
+
+    private void clearAtomically(long bit)
+    {
+        BITS.getAndBitwiseAnd(bits, (int) (bit >>> 6), ~(1L << bit));
+    }
+
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int rows, cols;
+    private final long[] bits;
+}
@@ -0,0 +1,98 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The interior walls of a rows x cols grid, each visited once in random order,
+ * without materialising the order: wall k is a keyed Feistel permutation of k
+ * over the next power of two, cycle-walked back into range. Walls are indexed as a long, right walls first
+ * (row by row, cols-1 per row), then bottom walls (one per cell above the last
+ * row), so no cell id is ever shifted or multiplied past an int.
+ */
+class WallOrder
+{
+    WallOrder(int rows, int cols)
+    {
+        this.cols = cols;
+        this.nRight = (long) rows * (cols - 1);
+        this.nWalls = nRight + (long) (rows - 1) * cols;
+        int bits = Math.max(1, 64 - Long.numberOfLeadingZeros(nWalls - 1));  // 2^bits < 2 * nWalls
+        lowBits = bits / 2;
+        highBits = bits - lowBits;
+        lowMask = (1L << lowBits) - 1;
+        highMask = (1L << highBits) - 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int r = 0; r < ROUNDS; r++)
+            keys[r] = random.nextLong();
+    }
+
+    // Step to the next wall; false once every wall has been visited
+    public boolean next()
+    {
+        if (k >= nWalls)
+            return false;
+        long wall = k++;
+        do
+            wall = permute(wall);
+        while (wall >= nWalls);   // domain is under 2 * nWalls, so few steps
+        if (wall < nRight)
+        {
+            right = true;
+            if (wall <= Integer.MAX_VALUE)  // int division is much cheaper
+                cell = (int) wall / (cols - 1) * cols + (int) wall % (cols - 1);
+            else
+                cell = (int) (wall / (cols - 1)) * cols + (int) (wall % (cols - 1));
+        }
+        else
+        {
+            right = false;
+            cell = (int) (wall - nRight);
+        }
+        return true;
+    }
+
+    // Cell owning the current wall
+    public int cell()
+    {
+        return cell;
+    }
+
+    // Whether the current wall is the cell's right wall (else its bottom wall)
+    public boolean right()
+    {
+        return right;
+    }
+
+    public long size()
+    {
+        return nWalls;
+    }
+
+    // Feistel network over lowBits + highBits bits: each round xors a keyed
+    // hash of the low part into the high part, then rotates the low part to the top
+    private long permute(long x)
+    {
+        for (int r = 0; r < ROUNDS; r++)
+        {
+            x ^= (mix((x & lowMask) ^ keys[r]) & highMask) << lowBits;
+            x = (x >>> lowBits) | ((x & lowMask) << highBits);
+        }
+        return x;
+    }
+
+    // one multiply-xorshift round; the Feistel rounds do the rest of the mixing
+    static private long mix(long z)
+    {
+        z *= 0x9E3779B97F4A7C15L;
+        return z ^ (z >>> 32);
+    }
+
+    static private final int ROUNDS = 4;
+
+    private final int cols;
+    private final long nRight, nWalls;
+    private final int lowBits, highBits;
+    private final long lowMask, highMask;
+    private final long[] keys = new long[ROUNDS];
+    private long k;
+    private int cell;
+    private boolean right;
+}